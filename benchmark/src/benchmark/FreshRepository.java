@@ -0,0 +1,21 @@
+package benchmark;
+
+import controller.InMemoryRepository;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.sql.SQLException;
+
+
+@State(Scope.Benchmark)
+public class FreshRepository {
+    public InMemoryRepository repository;
+
+    @Setup(Level.Iteration)
+    public void reseed(SeededRepository seeded)
+            throws SQLException {
+        repository = seeded.build();
+    }
+}
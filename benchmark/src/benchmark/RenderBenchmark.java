@@ -0,0 +1,53 @@
+package benchmark;
+
+import model.PostSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import view.NovepusIO;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark {
+    @Param({"20", "200"})
+    public int pageSize;
+
+    private NovepusIO io;
+    private ArrayList<PostSummary> page;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededRepository seeded)
+            throws SQLException {
+        io = new NovepusIO(InputStream.nullInputStream(), new PrintStream(OutputStream.nullOutputStream()));
+        io.setUsername("benchmark");
+        page = seeded.repository.getPostSummaryPage(Integer.MAX_VALUE, pageSize);
+    }
+
+    @Benchmark
+    public int printPostList() {
+        int rows = io.printPostList(page);
+        io.flush();
+        return rows;
+    }
+}
@@ -0,0 +1,83 @@
+package benchmark;
+
+import model.Post;
+import model.PostSummary;
+import model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+    private final SplittableRandom random = new SplittableRandom();
+
+    private int userId(SeededRepository seeded) {
+        return 1 + random.nextInt(seeded.users);
+    }
+
+    private int postId(SeededRepository seeded) {
+        return 1 + random.nextInt(seeded.posts);
+    }
+
+    @Benchmark
+    public User retrieveUserById(SeededRepository seeded)
+            throws SQLException {
+        return seeded.repository.retrieveUserById(userId(seeded));
+    }
+
+    @Benchmark
+    public Post retrievePostById(SeededRepository seeded)
+            throws SQLException {
+        return seeded.repository.retrievePostById(postId(seeded));
+    }
+
+    @Benchmark
+    public long streamUserInbox(SeededRepository seeded)
+            throws SQLException {
+        try (Stream<Integer> inbox = seeded.repository.streamUserInbox(SeededRepository.userName(userId(seeded)))) {
+            return inbox.count();
+        }
+    }
+
+    @Benchmark
+    public ArrayList<Integer> getUserInterestPost(SeededRepository seeded) {
+        return seeded.repository.getUserInterestPost(SeededRepository.userName(userId(seeded)));
+    }
+
+    @Benchmark
+    public int getPostLikes(SeededRepository seeded) {
+        return seeded.repository.getPostLikes(postId(seeded));
+    }
+
+    @Benchmark
+    public ArrayList<PostSummary> getPostSummaryPage(SeededRepository seeded)
+            throws SQLException {
+        return seeded.repository.getPostSummaryPage(postId(seeded), 20);
+    }
+
+    @Benchmark
+    public void createPost(SeededRepository seeded, FreshRepository fresh)
+            throws SQLException {
+        fresh.repository.createPost(new Post("Benchmark", SeededRepository.userName(userId(seeded)),
+                "Benchmark content", new ArrayList<>(List.of(SeededRepository.labelName(random.nextInt(seeded.labels))))));
+    }
+}
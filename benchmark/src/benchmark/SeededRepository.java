@@ -0,0 +1,76 @@
+package benchmark;
+
+import controller.InMemoryRepository;
+import model.Comment;
+import model.Message;
+import model.Post;
+import model.User;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+
+@State(Scope.Benchmark)
+public class SeededRepository {
+    @Param({"1000"})
+    public int users;
+    @Param({"10000"})
+    public int posts;
+    @Param({"4"})
+    public int commentsPerPost;
+    @Param({"20"})
+    public int messagesPerUser;
+    @Param({"100"})
+    public int labels;
+    @Param({"3"})
+    public int labelsPerPost;
+
+    public InMemoryRepository repository;
+
+    public static String userName(int index) {
+        return "user" + index;
+    }
+
+    public static String labelName(int index) {
+        return "label" + index;
+    }
+
+    @Setup(Level.Trial)
+    public void seed()
+            throws SQLException {
+        repository = build();
+    }
+
+    public InMemoryRepository build()
+            throws SQLException {
+        SplittableRandom random = new SplittableRandom(2411);
+        InMemoryRepository repository = new InMemoryRepository();
+        for (int i = 1; i <= users; i++) {
+            repository.createUser(new User(userName(i), "password", userName(i) + "@novepus.local"));
+            for (int j = 0; j < 3; j++)
+                repository.addUserInterest(userName(i), labelName(random.nextInt(labels)));
+        }
+        for (int i = 1; i <= posts; i++) {
+            ArrayList<String> postLabels = new ArrayList<>();
+            for (int j = 0; j < labelsPerPost; j++)
+                postLabels.add(labelName(random.nextInt(labels)));
+            repository.createPost(new Post("Post " + i, userName(1 + random.nextInt(users)),
+                    "Content of post " + i + " ".repeat(random.nextInt(200)), postLabels));
+            for (int j = 0; j < commentsPerPost; j++)
+                repository.createComment(new Comment(i, userName(1 + random.nextInt(users)), "Comment " + j));
+            repository.userLikePost(userName(1 + random.nextInt(users)), i);
+        }
+        for (int i = 1; i <= users; i++) {
+            for (int j = 0; j < messagesPerUser; j++)
+                repository.createMessage(new Message(userName(1 + random.nextInt(users)), userName(i), "Hello " + j));
+            repository.userFollow(userName(i), userName(1 + random.nextInt(users)));
+        }
+        return repository;
+    }
+}
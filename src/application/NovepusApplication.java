@@ -24,16 +24,16 @@ public final class NovepusApplication {
             sqlException.printStackTrace();
             session.novepusIO.novepusPrintln("Connection Broken. Restart Needed.");
             session.novepusIO.novepusPrintln("Connection Broken. Restart Needed.");
-            try {
-                session.novepusController.getConnection().close();
-            } catch (SQLException ignored) {
-            }
-            session.novepusIO.novepusPrintln("Connection Closed.");
+        } finally {
+            session.novepusController.getRepository().close();
+            if (session.novepusController.getConnectionPool() != null)
+                session.novepusIO.novepusPrintln("Connection Closed.");
+            session.novepusIO.flush();
         }
     }
 
     public void launch() throws SQLException {
-        if (novepusController.getConnection() != null)
+        if (novepusController.getRepository() != null)
             novepusController.run();
     }
 }
@@ -0,0 +1,52 @@
+package application;
+
+import controller.BulkImporter;
+import controller.ConnectionPool;
+import controller.DBController;
+import controller.data.OracleData;
+import oracle.jdbc.driver.OracleDriver;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+
+public final class NovepusImporter {
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Usage: NovepusImporter <posts|comments|messages|follows> <file.csv|file.jsonl>");
+            System.out.println("Tuning: -Dnovepus.import.chunk_size, .threads, .queued_chunks, .report_interval_millis");
+            System.out.println("Stop every running Novepus instance first; they rebuild feeds and search at start-up.");
+            System.exit(1);
+        }
+        BulkImporter.Kind kind;
+        try {
+            kind = BulkImporter.Kind.of(args[0]);
+        } catch (IllegalArgumentException illegalArgumentException) {
+            System.out.println("Unknown kind '" + args[0] + "'");
+            System.exit(1);
+            return;
+        }
+        int status = 0;
+        try {
+            DriverManager.registerDriver(new OracleDriver());
+            try (ConnectionPool pool = new ConnectionPool(OracleData.URL.getData(),
+                    OracleData.USERNAME.getData(), OracleData.PASSWORD.getData())) {
+                DBController.setConnectionPool(pool);
+                BulkImporter importer = new BulkImporter(pool, System.out);
+                importer.run(kind, Path.of(args[1]));
+                System.out.println("Restart Novepus instances to pick up the imported rows.");
+                if (importer.getFailed() > 0 || importer.getSkipped() > 0)
+                    status = 2;
+            }
+        } catch (SQLException | IOException exception) {
+            exception.printStackTrace();
+            status = 1;
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            status = 1;
+        }
+        System.exit(status);
+    }
+}
@@ -0,0 +1,67 @@
+package application;
+
+import controller.ConnectionPool;
+import controller.DBController;
+import controller.InMemoryRepository;
+import controller.NovepusRepository;
+import controller.OracleRepository;
+import controller.data.OracleData;
+import controller.data.ServerData;
+import controller.data.StorageData;
+import controller.metrics.QueryStats;
+import controller.server.ConsoleServer;
+import oracle.jdbc.driver.OracleDriver;
+
+import java.io.IOException;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+
+public final class NovepusServer {
+    public static void main(String[] args) {
+        int status = 0;
+        ConnectionPool pool = null;
+        try {
+            NovepusRepository repository;
+            if (StorageData.BACKEND.getData().equalsIgnoreCase("memory"))
+                repository = QueryStats.global().instrument(
+                        InMemoryRepository.open(StorageData.SNAPSHOT_FILE.getData()));
+            else {
+                DriverManager.registerDriver(new OracleDriver());
+                pool = new ConnectionPool(OracleData.URL.getData(),
+                        OracleData.USERNAME.getData(), OracleData.PASSWORD.getData());
+                DBController.setConnectionPool(pool);
+                DBController.preload();
+                repository = QueryStats.global().instrument(new OracleRepository());
+            }
+            ConsoleServer server = new ConsoleServer(repository,
+                    ConsoleServer.platformThreads(ServerData.STACK_SIZE_KB.getData() * 1024L),
+                    ServerData.MAX_CONNECTIONS.getData(),
+                    (int) TimeUnit.SECONDS.toMillis(ServerData.IDLE_TIMEOUT_SECONDS.getData()));
+            server.bind(ServerData.PORT.getData(), ServerData.BACKLOG.getData());
+            Thread shutdown = new Thread(() -> {
+                System.out.println("Draining " + server.getActiveSessionCount() + " session(s)...");
+                try {
+                    if (!server.shutdown(TimeUnit.SECONDS.toMillis(ServerData.DRAIN_SECONDS.getData())))
+                        System.out.println("Drain timed out, remaining sessions were closed.");
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                repository.close();
+                System.out.println("Novepus server stopped.");
+            }, "novepus-shutdown");
+            Runtime.getRuntime().addShutdownHook(shutdown);
+            System.out.printf("Novepus server listening on port %d (max %d connections)%n",
+                    server.getPort(), server.getMaxConnections());
+            server.serve();
+            return;
+        } catch (SQLException | IOException exception) {
+            exception.printStackTrace();
+            status = 1;
+        }
+        if (pool != null)
+            DBController.shutdown();
+        System.exit(status);
+    }
+}
@@ -0,0 +1,61 @@
+package application;
+
+import controller.ConnectionPool;
+import controller.DBController;
+import controller.InMemoryRepository;
+import controller.NovepusRepository;
+import controller.OracleRepository;
+import controller.data.OracleData;
+import controller.data.SimulatorData;
+import controller.data.StorageData;
+import controller.metrics.QueryStats;
+import controller.simulation.WorkloadSimulator;
+import oracle.jdbc.driver.OracleDriver;
+
+import java.io.IOException;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+
+public final class NovepusSimulator {
+    public static void main(String[] args) {
+        int status = 0;
+        ConnectionPool pool = null;
+        try {
+            NovepusRepository repository;
+            if (SimulatorData.BACKEND.getData().equalsIgnoreCase("oracle")) {
+                DriverManager.registerDriver(new OracleDriver());
+                pool = new ConnectionPool(OracleData.URL.getData(),
+                        OracleData.USERNAME.getData(), OracleData.PASSWORD.getData());
+                DBController.setConnectionPool(pool);
+                DBController.preload();
+                repository = QueryStats.global().instrument(new OracleRepository());
+            } else
+                repository = QueryStats.global().instrument(
+                        InMemoryRepository.open(StorageData.SNAPSHOT_FILE.getData()));
+            try (repository) {
+                WorkloadSimulator simulator = new WorkloadSimulator(repository,
+                        WorkloadSimulator.platformThreads(SimulatorData.STACK_SIZE_KB.getInt() * 1024L));
+                simulator.seed(SimulatorData.SEED_POSTS.getInt());
+                System.out.printf("Simulating %d users x %d sessions x %d flows on %s backend...%n",
+                        SimulatorData.USERS.getInt(), SimulatorData.SESSIONS_PER_USER.getInt(),
+                        SimulatorData.FLOWS_PER_SESSION.getInt(), SimulatorData.BACKEND.getData());
+                simulator.run(SimulatorData.USERS.getInt(), SimulatorData.SESSIONS_PER_USER.getInt(),
+                        SimulatorData.FLOWS_PER_SESSION.getInt(), SimulatorData.THINK_MILLIS.getInt());
+                simulator.report(System.out);
+                if (simulator.getIncompleteSessionCount() > 0)
+                    status = 2;
+            }
+        } catch (SQLException | IOException exception) {
+            exception.printStackTrace();
+            status = 1;
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            status = 1;
+        } finally {
+            if (pool != null)
+                DBController.shutdown();
+        }
+        System.exit(status);
+    }
+}
@@ -0,0 +1,227 @@
+package controller;
+
+import controller.data.AuditLogData;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+
+public final class AuditLog implements AutoCloseable {
+    public enum OverflowPolicy {
+        BLOCK, DROP, SAMPLE
+    }
+
+    private record Entry(long time, String sql, Object[] params) {
+    }
+
+    private final Path file;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final boolean compress;
+    private final OverflowPolicy policy;
+    private final int sampleRate;
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong offered = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong sampledOut = new AtomicLong();
+    private final StringBuilder batch = new StringBuilder();
+    private final Thread writer;
+    private volatile boolean closed;
+    private OutputStream out;
+    private long fileBytes;
+
+    public AuditLog() {
+        this(Paths.get(AuditLogData.FILE_NAME.getData()),
+                AuditLogData.CAPACITY.getInt(),
+                AuditLogData.BATCH_SIZE.getInt(),
+                AuditLogData.FLUSH_INTERVAL_MILLIS.getInt(),
+                AuditLogData.MAX_FILE_BYTES.getInt(),
+                AuditLogData.MAX_FILES.getInt(),
+                Boolean.parseBoolean(AuditLogData.COMPRESS.getData()),
+                OverflowPolicy.valueOf(AuditLogData.OVERFLOW_POLICY.getData().toUpperCase()),
+                AuditLogData.SAMPLE_RATE.getInt());
+    }
+
+    public AuditLog(Path file, int capacity, int batchSize, long flushIntervalMillis,
+                    long maxFileBytes, int maxFiles, boolean compress,
+                    OverflowPolicy policy, int sampleRate) {
+        this.file = file;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        this.compress = compress;
+        this.policy = policy;
+        this.sampleRate = Math.max(1, sampleRate);
+        writer = new Thread(this::drainLoop, "novepus-audit-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public void record(String sql, Object... params) {
+        if (closed)
+            return;
+        long sequence = offered.incrementAndGet();
+        while (true) {
+            int current = size.get();
+            if (current >= capacity) {
+                if (policy != OverflowPolicy.BLOCK || closed) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                continue;
+            }
+            if (policy == OverflowPolicy.SAMPLE && current >= capacity / 4 * 3 && sequence % sampleRate != 0) {
+                sampledOut.incrementAndGet();
+                return;
+            }
+            if (size.compareAndSet(current, current + 1))
+                break;
+        }
+        queue.offer(new Entry(System.currentTimeMillis(), sql, params));
+        if (size.get() >= batchSize)
+            LockSupport.unpark(writer);
+    }
+
+    private void drainLoop() {
+        try {
+            open();
+            while (!closed || !queue.isEmpty()) {
+                if (queue.isEmpty())
+                    LockSupport.parkNanos(this, flushIntervalNanos);
+                drain();
+                out.flush();
+            }
+        } catch (IOException ioException) {
+            closed = true;
+            dropped.addAndGet(size.getAndSet(0));
+            queue.clear();
+        } finally {
+            try {
+                if (out != null)
+                    out.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void drain()
+            throws IOException {
+        Entry entry;
+        int count = 0;
+        while ((entry = queue.poll()) != null) {
+            size.decrementAndGet();
+            batch.append(entry.sql()).append(' ').append(Arrays.toString(entry.params())).append('\n');
+            if (++count == batchSize) {
+                writeBatch(count);
+                count = 0;
+            }
+        }
+        if (count > 0)
+            writeBatch(count);
+    }
+
+    private void writeBatch(int count)
+            throws IOException {
+        byte[] bytes = batch.toString().getBytes(StandardCharsets.UTF_8);
+        batch.setLength(0);
+        out.write(bytes);
+        fileBytes += bytes.length;
+        written.addAndGet(count);
+        if (fileBytes >= maxFileBytes)
+            rotate();
+    }
+
+    private void open()
+            throws IOException {
+        out = new BufferedOutputStream(new FileOutputStream(file.toFile(), true), 1 << 16);
+        fileBytes = Files.size(file);
+        byte[] header = ("Record All SQL statements at " + new Date() + "\n").getBytes(StandardCharsets.UTF_8);
+        out.write(header);
+        fileBytes += header.length;
+    }
+
+    private void rotate()
+            throws IOException {
+        out.close();
+        String suffix = compress ? ".gz" : "";
+        Files.deleteIfExists(rotated(maxFiles, suffix));
+        for (int i = maxFiles - 1; i >= 1; i--)
+            if (Files.exists(rotated(i, suffix)))
+                Files.move(rotated(i, suffix), rotated(i + 1, suffix), StandardCopyOption.REPLACE_EXISTING);
+        if (maxFiles < 1)
+            Files.delete(file);
+        else if (compress) {
+            try (InputStream in = Files.newInputStream(file);
+                 OutputStream gzip = new GZIPOutputStream(Files.newOutputStream(rotated(1, suffix)))) {
+                in.transferTo(gzip);
+            }
+            Files.delete(file);
+        } else
+            Files.move(file, rotated(1, suffix), StandardCopyOption.REPLACE_EXISTING);
+        open();
+    }
+
+    private Path rotated(int index, String suffix) {
+        return file.resolveSibling(file.getFileName() + "." + index + suffix);
+    }
+
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getQueued() {
+        return size.get();
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getSampledOut() {
+        return sampledOut.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AuditLog[%s policy=%s queued=%d/%d written=%d dropped=%d sampledOut=%d]",
+                file, policy, size.get(), capacity, written.get(), dropped.get(), sampledOut.get());
+    }
+}
@@ -0,0 +1,86 @@
+package controller;
+
+import model.Credentials;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.sql.SQLException;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+
+public final class AuthService {
+    private static final int TOKEN_BYTES = 18;
+    private static final Base64.Encoder TOKEN_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final SecureRandom random = new SecureRandom();
+
+    public record Session(String token, int userId, String userName, long issuedAt) {
+    }
+
+    private final NovepusRepository repository;
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final LongAdder logins = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public AuthService(NovepusRepository repository) {
+        this.repository = repository;
+    }
+
+    public Credentials lookup(String userName)
+            throws SQLException {
+        return repository.retrieveCredentials(userName);
+    }
+
+    public Session authenticate(Credentials credentials, String password)
+            throws SQLException {
+        if (credentials == null || !matches(credentials.userPassword(), password)) {
+            failures.increment();
+            return null;
+        }
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        Session session = new Session(TOKEN_ENCODER.encodeToString(bytes), credentials.userId(),
+                credentials.userName(), System.currentTimeMillis());
+        sessions.put(session.token(), session);
+        repository.setUserStatus(session.userName(), true);
+        logins.increment();
+        return session;
+    }
+
+    public boolean verify(String userName, String password)
+            throws SQLException {
+        Credentials credentials = lookup(userName);
+        return credentials != null && matches(credentials.userPassword(), password);
+    }
+
+    public Session validate(String token) {
+        return token == null ? null : sessions.get(token);
+    }
+
+    public void logout(Session session)
+            throws SQLException {
+        if (session != null && sessions.remove(session.token(), session))
+            repository.setUserStatus(session.userName(), false);
+    }
+
+    private static boolean matches(String expected, String password) {
+        if (expected == null || password == null)
+            return false;
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+                password.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public long getLoginCount() {
+        return logins.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+}
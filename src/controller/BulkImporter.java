@@ -0,0 +1,387 @@
+package controller;
+
+import controller.data.ImportData;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+
+public final class BulkImporter {
+    public enum Kind {
+        POSTS, COMMENTS, MESSAGES, FOLLOWS;
+
+        public static Kind of(String name) {
+            return valueOf(name.strip().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final ConnectionPool pool;
+    private final PrintStream out;
+    private final int chunkSize;
+    private final int threads;
+    private final int queuedChunks;
+    private final long reportIntervalMillis;
+    private final ConcurrentHashMap<String, Integer> userIds = new ConcurrentHashMap<>();
+    private final LabelDictionary labels = new LabelDictionary();
+    private final HashSet<String> claimedLabels = new HashSet<>();
+    private final Object labelLock = new Object();
+    private final LongAdder imported = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicReference<Exception> firstError = new AtomicReference<>();
+
+    public BulkImporter(ConnectionPool pool, PrintStream out) {
+        this(pool, out, ImportData.CHUNK_SIZE.getData(), ImportData.THREADS.getData(),
+                ImportData.QUEUED_CHUNKS.getData(), ImportData.REPORT_INTERVAL_MILLIS.getData());
+    }
+
+    public BulkImporter(ConnectionPool pool, PrintStream out, int chunkSize, int threads,
+                        int queuedChunks, long reportIntervalMillis) {
+        this.pool = pool;
+        this.out = out;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.threads = Math.max(1, threads);
+        this.queuedChunks = Math.max(1, queuedChunks);
+        this.reportIntervalMillis = Math.max(100, reportIntervalMillis);
+    }
+
+    public long run(Kind kind, Path file)
+            throws IOException, SQLException, InterruptedException {
+        loadUserIds();
+        loadLabels();
+        AtomicInteger workerNumber = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "novepus-import-" + workerNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "novepus-import-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore inFlight = new Semaphore(threads + queuedChunks);
+        long start = System.nanoTime();
+        reporter.scheduleAtFixedRate(() -> report(start, false),
+                reportIntervalMillis, reportIntervalMillis, TimeUnit.MILLISECONDS);
+        try (RecordReader reader = RecordReader.open(file)) {
+            ArrayList<HashMap<String, String>> chunk = new ArrayList<>(chunkSize);
+            HashMap<String, String> record;
+            while ((record = reader.next()) != null) {
+                chunk.add(record);
+                if (chunk.size() >= chunkSize) {
+                    submit(workers, inFlight, kind, chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty())
+                submit(workers, inFlight, kind, chunk);
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            reporter.shutdownNow();
+        }
+        report(start, true);
+        Exception error = firstError.get();
+        if (error != null)
+            out.println("First failure: " + error);
+        return imported.sum();
+    }
+
+    private void submit(ExecutorService workers, Semaphore inFlight, Kind kind,
+                        List<HashMap<String, String>> chunk)
+            throws InterruptedException {
+        inFlight.acquire();
+        workers.execute(() -> {
+            try {
+                importChunk(kind, chunk);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void report(long start, boolean last) {
+        double seconds = Math.max(1e-9, (System.nanoTime() - start) / 1e9);
+        long done = imported.sum();
+        out.printf("%s %,d imported, %,d skipped, %,d failed in %.1fs (%,.0f rows/s)%n",
+                last ? "Finished:" : "Progress:", done, skipped.sum(), failed.sum(), seconds, done / seconds);
+    }
+
+    private void loadUserIds()
+            throws SQLException {
+        try (PooledConnection c = pool.borrow();
+             PreparedStatement stmt = c.getConnection().prepareStatement("SELECT \"id\", \"username\" FROM \"user\"")) {
+            stmt.setFetchSize(chunkSize);
+            try (ResultSet r = stmt.executeQuery()) {
+                while (r.next())
+                    userIds.put(r.getString(2), r.getInt(1));
+            }
+        }
+    }
+
+    private void loadLabels()
+            throws SQLException {
+        try (PooledConnection c = pool.borrow();
+             PreparedStatement stmt = c.getConnection().prepareStatement("SELECT \"id\", \"label_name\" FROM \"interest\"");
+             ResultSet r = stmt.executeQuery()) {
+            while (r.next())
+                labels.put(r.getInt(1), r.getString(2));
+        }
+    }
+
+    private ArrayList<String> claimLabels(List<String> labelLists)
+            throws InterruptedException {
+        LinkedHashSet<String> names = new LinkedHashSet<>();
+        for (String labelList : labelLists)
+            names.addAll(labelNames(labelList));
+        ArrayList<String> claimed = new ArrayList<>();
+        synchronized (labelLock) {
+            boolean busy;
+            do {
+                claimed.clear();
+                busy = false;
+                for (String name : names) {
+                    if (labels.getId(name) != LabelDictionary.NO_LABEL)
+                        continue;
+                    if (claimedLabels.contains(name)) {
+                        busy = true;
+                        labelLock.wait();
+                        break;
+                    }
+                    claimed.add(name);
+                }
+            } while (busy);
+            claimedLabels.addAll(claimed);
+        }
+        return claimed;
+    }
+
+    private void releaseLabels(List<String> claimed, Map<String, Integer> created) {
+        if (claimed.isEmpty())
+            return;
+        synchronized (labelLock) {
+            created.forEach((name, labelId) -> labels.put(labelId, name));
+            claimed.forEach(claimedLabels::remove);
+            labelLock.notifyAll();
+        }
+    }
+
+    private static ArrayList<String> labelNames(String labelList) {
+        ArrayList<String> names = new ArrayList<>();
+        if (labelList != null)
+            for (String name : labelList.split("[;|]"))
+                if (!name.isBlank())
+                    names.add(name.strip());
+        return names;
+    }
+
+    private void importChunk(Kind kind, List<HashMap<String, String>> chunk) {
+        ArrayList<Object[]> rows = new ArrayList<>(chunk.size());
+        ArrayList<String> labelLists = new ArrayList<>(chunk.size());
+        for (HashMap<String, String> record : chunk) {
+            Object[] row = toRow(kind, record);
+            if (row == null) {
+                skipped.increment();
+                continue;
+            }
+            rows.add(row);
+            labelLists.add(record.get("labels"));
+        }
+        if (rows.isEmpty())
+            return;
+        ArrayList<String> claimed;
+        try {
+            claimed = kind == Kind.POSTS ? claimLabels(labelLists) : new ArrayList<>();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            failed.add(rows.size());
+            return;
+        }
+        HashMap<String, Integer> created = new HashMap<>();
+        boolean committed = false;
+        try (PooledConnection c = pool.borrow()) {
+            Connection connection = c.getConnection();
+            connection.setAutoCommit(false);
+            try {
+                switch (kind) {
+                    case POSTS -> insertPosts(connection, rows, labelLists, created);
+                    case COMMENTS -> insertBatch(connection, "INSERT INTO \"comment\" VALUES (0,?,?,?,?,0)", rows);
+                    case MESSAGES -> insertBatch(connection, "INSERT INTO \"message\" VALUES (0,?,?,?,?,0)", rows);
+                    case FOLLOWS -> insertBatch(connection, "INSERT INTO \"follow_user\" VALUES (?,?)", rows);
+                }
+                connection.commit();
+                committed = true;
+                imported.add(rows.size());
+            } catch (SQLException sqlException) {
+                connection.rollback();
+                throw sqlException;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException sqlException) {
+            failed.add(rows.size());
+            firstError.compareAndSet(null, sqlException);
+        } finally {
+            releaseLabels(claimed, committed ? created : Map.of());
+        }
+    }
+
+    private Object[] toRow(Kind kind, HashMap<String, String> record) {
+        try {
+            return switch (kind) {
+                case POSTS -> new Object[]{user(record.get("author")), date(record.get("date")),
+                        text(record.get("content")), text(record.get("title"))};
+                case COMMENTS -> new Object[]{Integer.parseInt(record.get("post_id").strip()),
+                        user(record.get("author")), date(record.get("date")), text(record.get("content"))};
+                case MESSAGES -> new Object[]{user(record.get("sender")), user(record.get("receiver")),
+                        date(record.get("date")), text(record.get("content"))};
+                case FOLLOWS -> new Object[]{user(record.get("user")), user(record.get("followed"))};
+            };
+        } catch (RuntimeException invalidRecord) {
+            firstError.compareAndSet(null, invalidRecord);
+            return null;
+        }
+    }
+
+    private int user(String userName) {
+        Integer userId = userName == null ? null : userIds.get(userName.strip());
+        if (userId == null)
+            throw new IllegalArgumentException("Unknown user '" + userName + "'");
+        return userId;
+    }
+
+    private static Timestamp date(String date) {
+        if (date == null || date.isBlank())
+            return new Timestamp(System.currentTimeMillis());
+        return Timestamp.valueOf(date.strip());
+    }
+
+    private static String text(String text) {
+        return text == null ? "" : text;
+    }
+
+    private void insertPosts(Connection connection, List<Object[]> rows, List<String> postLabelLists,
+                             Map<String, Integer> created)
+            throws SQLException {
+        String sql = "INSERT INTO \"post\" VALUES (0,?,?,?,0,?)";
+        ArrayList<Object[]> postLabels = new ArrayList<>();
+        try (PreparedStatement batch = connection.prepareStatement(sql);
+             CallableStatement returning = connection.prepareCall("BEGIN " + sql + " RETURNING \"id\" INTO ?; END;")) {
+            int batched = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                Object[] row = rows.get(i);
+                ArrayList<String> names = labelNames(postLabelLists.get(i));
+                if (names.isEmpty()) {
+                    bind(batch, row);
+                    batch.addBatch();
+                    batched++;
+                    continue;
+                }
+                if (batched > 0) {
+                    batch.executeBatch();
+                    batched = 0;
+                }
+                bind(returning, row);
+                returning.registerOutParameter(row.length + 1, Types.INTEGER);
+                returning.execute();
+                int postId = returning.getInt(row.length + 1);
+                LinkedHashSet<Integer> labelIds = new LinkedHashSet<>();
+                for (String name : names)
+                    labelIds.add(labelId(connection, name, created));
+                for (int labelId : labelIds)
+                    postLabels.add(new Object[]{postId, labelId});
+            }
+            if (batched > 0)
+                batch.executeBatch();
+        }
+        if (!postLabels.isEmpty())
+            insertBatch(connection, "INSERT INTO \"interest_post\" VALUES(?,?)", postLabels);
+    }
+
+    private int labelId(Connection connection, String name, Map<String, Integer> created)
+            throws SQLException {
+        int labelId = labels.getId(name);
+        if (labelId != LabelDictionary.NO_LABEL)
+            return labelId;
+        Integer pending = created.get(name);
+        if (pending != null)
+            return pending;
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT \"id\" FROM \"interest\" WHERE \"label_name\"=?")) {
+            stmt.setString(1, name);
+            try (ResultSet r = stmt.executeQuery()) {
+                if (r.next()) {
+                    created.put(name, r.getInt(1));
+                    return r.getInt(1);
+                }
+            }
+        }
+        try (CallableStatement stmt = connection.prepareCall(
+                "BEGIN INSERT INTO \"interest\" VALUES(0,?) RETURNING \"id\" INTO ?; END;")) {
+            stmt.setString(1, name);
+            stmt.registerOutParameter(2, Types.INTEGER);
+            stmt.execute();
+            created.put(name, stmt.getInt(2));
+            return stmt.getInt(2);
+        }
+    }
+
+    private static void insertBatch(Connection connection, String sql, List<Object[]> rows)
+            throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (Object[] row : rows) {
+                bind(stmt, row);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static void bind(PreparedStatement stmt, Object[] row)
+            throws SQLException {
+        for (int i = 0; i < row.length; i++) {
+            if (row[i] instanceof Integer value)
+                stmt.setInt(i + 1, value);
+            else if (row[i] instanceof Timestamp value)
+                stmt.setTimestamp(i + 1, value);
+            else
+                stmt.setString(i + 1, (String) row[i]);
+        }
+    }
+
+    public long getImported() {
+        return imported.sum();
+    }
+
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+}
@@ -0,0 +1,394 @@
+package controller;
+
+import controller.data.PoolData;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+public final class ConnectionPool implements AutoCloseable {
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long acquireTimeoutNanos;
+    private final long idleTimeoutNanos;
+    private final int validationTimeoutSeconds;
+    private final long validateAfterIdleNanos;
+    private final int statementCacheSize;
+    private final ArrayDeque<PooledConnection> idle = new ArrayDeque<>();
+    private final ArrayList<PooledConnection> all = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final ScheduledExecutorService evictor;
+    private int pending;
+    private int waiting;
+    private boolean closed;
+    private long borrowCount;
+    private long waitCount;
+    private long timeoutCount;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+    private long createdCount;
+    private long destroyedCount;
+
+    public ConnectionPool(String url, String username, String password)
+            throws SQLException {
+        this(url, username, password,
+                PoolData.MIN_SIZE.getData(), PoolData.MAX_SIZE.getData(),
+                PoolData.ACQUIRE_TIMEOUT_MILLIS.getData(), PoolData.IDLE_TIMEOUT_MILLIS.getData(),
+                PoolData.VALIDATION_TIMEOUT_SECONDS.getData(), PoolData.VALIDATE_AFTER_IDLE_MILLIS.getData(),
+                PoolData.STATEMENT_CACHE_SIZE.getData());
+    }
+
+    public ConnectionPool(String url, String username, String password,
+                          int minSize, int maxSize, long acquireTimeoutMillis, long idleTimeoutMillis,
+                          int validationTimeoutSeconds, long validateAfterIdleMillis, int statementCacheSize)
+            throws SQLException {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize)
+            throw new IllegalArgumentException("Invalid pool size " + minSize + ".." + maxSize);
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.acquireTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.validateAfterIdleNanos = TimeUnit.MILLISECONDS.toNanos(validateAfterIdleMillis);
+        this.statementCacheSize = statementCacheSize;
+        for (int i = 0; i < minSize; i++) {
+            PooledConnection connection = open();
+            lock.lock();
+            try {
+                all.add(connection);
+                idle.push(connection);
+            } finally {
+                lock.unlock();
+            }
+        }
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "novepus-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public PooledConnection borrow()
+            throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + acquireTimeoutNanos;
+        boolean waited = false;
+        while (true) {
+            PooledConnection connection = null;
+            boolean create = false;
+            lock.lock();
+            try {
+                while (!closed && idle.isEmpty() && all.size() + pending >= maxSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeoutCount++;
+                        throw new SQLTimeoutException(
+                                "Timed out waiting " + TimeUnit.NANOSECONDS.toMillis(acquireTimeoutNanos) +
+                                        "ms for a connection: " + this);
+                    }
+                    waited = true;
+                    waiting++;
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException interruptedException) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a connection", interruptedException);
+                    } finally {
+                        waiting--;
+                    }
+                }
+                if (closed)
+                    throw new SQLException("Connection pool is closed");
+                if (!idle.isEmpty())
+                    connection = idle.pop();
+                else {
+                    pending++;
+                    create = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (create)
+                connection = openReserved();
+            else if (System.nanoTime() - connection.getLastUsed() > validateAfterIdleNanos &&
+                    !connection.validate(validationTimeoutSeconds)) {
+                discard(connection);
+                continue;
+            }
+            recordBorrow(System.nanoTime() - start, waited);
+            return connection;
+        }
+    }
+
+    void release(PooledConnection connection) {
+        if (connection.isBroken()) {
+            discard(connection);
+            return;
+        }
+        connection.touch();
+        lock.lock();
+        try {
+            if (closed || !all.contains(connection)) {
+                connection.destroy();
+                return;
+            }
+            idle.push(connection);
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private PooledConnection openReserved()
+            throws SQLException {
+        PooledConnection connection;
+        try {
+            connection = open();
+        } catch (SQLException sqlException) {
+            lock.lock();
+            try {
+                pending--;
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+            throw sqlException;
+        }
+        lock.lock();
+        try {
+            pending--;
+            all.add(connection);
+        } finally {
+            lock.unlock();
+        }
+        return connection;
+    }
+
+    private PooledConnection open()
+            throws SQLException {
+        PooledConnection connection = new PooledConnection(this,
+                DriverManager.getConnection(url, username, password), statementCacheSize);
+        lock.lock();
+        try {
+            createdCount++;
+        } finally {
+            lock.unlock();
+        }
+        return connection;
+    }
+
+    private void discard(PooledConnection connection) {
+        lock.lock();
+        try {
+            all.remove(connection);
+            idle.remove(connection);
+            destroyedCount++;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        connection.destroy();
+    }
+
+    private void recordBorrow(long waitNanos, boolean waited) {
+        lock.lock();
+        try {
+            borrowCount++;
+            if (waited)
+                waitCount++;
+            totalWaitNanos += waitNanos;
+            maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evictIdle() {
+        ArrayList<PooledConnection> evicted = new ArrayList<>();
+        int missing;
+        lock.lock();
+        try {
+            if (closed)
+                return;
+            long now = System.nanoTime();
+            Iterator<PooledConnection> iterator = idle.descendingIterator();
+            while (iterator.hasNext() && all.size() - evicted.size() > minSize) {
+                PooledConnection connection = iterator.next();
+                if (now - connection.getLastUsed() < idleTimeoutNanos)
+                    break;
+                iterator.remove();
+                all.remove(connection);
+                destroyedCount++;
+                evicted.add(connection);
+            }
+            missing = minSize - all.size() - pending;
+            pending += Math.max(0, missing);
+        } finally {
+            lock.unlock();
+        }
+        for (PooledConnection connection : evicted)
+            connection.destroy();
+        for (int i = 0; i < missing; i++) {
+            try {
+                release(openReserved());
+            } catch (SQLException ignored) {
+                lock.lock();
+                try {
+                    pending -= missing - i - 1;
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        ArrayList<PooledConnection> connections;
+        lock.lock();
+        try {
+            if (closed)
+                return;
+            closed = true;
+            connections = new ArrayList<>(idle);
+            all.removeAll(idle);
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        evictor.shutdownNow();
+        for (PooledConnection connection : connections)
+            connection.destroy();
+    }
+
+    public boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getActiveCount() {
+        lock.lock();
+        try {
+            return all.size() - idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaitingCount() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getBorrowCount() {
+        lock.lock();
+        try {
+            return borrowCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getTimeoutCount() {
+        lock.lock();
+        try {
+            return timeoutCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getAverageWaitMillis() {
+        lock.lock();
+        try {
+            return borrowCount == 0 ? 0 : totalWaitNanos / 1e6 / borrowCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getMaxWaitMillis() {
+        lock.lock();
+        try {
+            return maxWaitNanos / 1e6;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getStatementCacheHits() {
+        lock.lock();
+        try {
+            long hits = 0;
+            for (PooledConnection connection : all)
+                hits += connection.getStatements().getHits();
+            return hits;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getStatementCacheMisses() {
+        lock.lock();
+        try {
+            long misses = 0;
+            for (PooledConnection connection : all)
+                misses += connection.getStatements().getMisses();
+            return misses;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return String.format(
+                    "ConnectionPool[%s active=%d idle=%d waiting=%d max=%d borrows=%d waits=%d timeouts=%d " +
+                            "avgWait=%.2fms maxWait=%.2fms created=%d destroyed=%d]",
+                    url, all.size() - idle.size(), idle.size(), waiting, maxSize, borrowCount, waitCount,
+                    timeoutCount, borrowCount == 0 ? 0 : totalWaitNanos / 1e6 / borrowCount, maxWaitNanos / 1e6,
+                    createdCount, destroyedCount);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package controller;
+
+import controller.metrics.QueryStats;
+
+import java.io.Serial;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+
+public final class Cursor<T> implements Iterator<T>, AutoCloseable {
+    public static final class FetchException extends RuntimeException {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        FetchException(SQLException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(ResultSet r) throws SQLException;
+    }
+
+    private final PooledConnection connection;
+    private final PreparedStatement statement;
+    private final ResultSet rows;
+    private final RowMapper<T> mapper;
+    private final String sql;
+    private final Object[] params;
+    private final long start = System.nanoTime();
+    private long count;
+    private boolean fetched;
+    private boolean hasNext;
+    private boolean failed;
+    private boolean closed;
+
+    private Cursor(PooledConnection connection, PreparedStatement statement, ResultSet rows,
+                   RowMapper<T> mapper, String sql, Object[] params) {
+        this.connection = connection;
+        this.statement = statement;
+        this.rows = rows;
+        this.mapper = mapper;
+        this.sql = sql;
+        this.params = params;
+    }
+
+    static <T> Cursor<T> open(PooledConnection connection, String sql, int fetchSize, RowMapper<T> mapper,
+                              Object... params)
+            throws SQLException {
+        PreparedStatement statement = connection.getConnection().prepareStatement(sql,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            for (int i = 0; i < params.length; i++)
+                DBController.bind(statement, i + 1, params[i]);
+            statement.setFetchSize(fetchSize);
+            return new Cursor<>(connection, statement, statement.executeQuery(), mapper, sql, params);
+        } catch (SQLException sqlException) {
+            statement.close();
+            throw sqlException;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed)
+            return false;
+        if (!fetched) {
+            try {
+                hasNext = rows.next();
+            } catch (SQLException sqlException) {
+                throw fail(sqlException);
+            }
+            fetched = true;
+            if (!hasNext)
+                close();
+        }
+        return hasNext;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        fetched = false;
+        count++;
+        try {
+            return mapper.map(rows);
+        } catch (SQLException sqlException) {
+            throw fail(sqlException);
+        }
+    }
+
+    private FetchException fail(SQLException sqlException) {
+        failed = true;
+        if (sqlException instanceof SQLRecoverableException)
+            connection.markBroken();
+        close();
+        return new FetchException(sqlException);
+    }
+
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(this::close);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+        try {
+            rows.close();
+        } catch (SQLException ignored) {
+        }
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+        }
+        connection.close();
+        QueryStats.global().recordStatement(sql, params, System.nanoTime() - start, count, failed);
+    }
+}
@@ -1,462 +1,926 @@
 package controller;
 
+import controller.data.CacheData;
+import controller.data.PoolData;
+import controller.data.PresenceData;
+import controller.metrics.QueryStats;
 import model.Comment;
+import model.Credentials;
 import model.Message;
 import model.Post;
+import model.PostSummary;
 import model.User;
-import oracle.jdbc.driver.OracleConnection;
 
-import java.io.FileOutputStream;
-import java.io.IOException;
+import java.sql.BatchUpdateException;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.text.SimpleDateFormat;
+import java.sql.SQLRecoverableException;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 
 public class DBController {
-    static OracleConnection conn;
-    static FileOutputStream stream;
+    private static final int MAX_IN_LIST = 1000;
+    private static final int LIKE_BATCH_SIZE = 256;
+    private static final int SEARCH_BUILD_CHUNK = 8192;
+    private static final int COMMENT_FETCH_SIZE = 100;
+    private static final int INBOX_FETCH_SIZE = 200;
+    private static final long LIKE_FLUSH_INTERVAL_MILLIS = 1000;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+    private static final int ORA_UNIQUE_CONSTRAINT = 1;
+    private static final String USER_HYDRATION = """
+            WITH ids AS (SELECT "id" FROM "user" WHERE %s)
+            SELECT u.*, r."kind", r."ref_id" FROM "user" u LEFT JOIN (
+                SELECT "user_id" "owner_id", 1 "kind", "interest_id" "ref_id"
+                    FROM "interest_user" WHERE "user_id" IN (SELECT "id" FROM ids)
+                UNION ALL SELECT "create_user_id", 2, "id"
+                    FROM "post" WHERE "create_user_id" IN (SELECT "id" FROM ids)
+            ) r ON r."owner_id"=u."id"
+            WHERE u."id" IN (SELECT "id" FROM ids)
+            ORDER BY u."id", r."kind", r."ref_id"
+            """;
+    private static final String POST_SUMMARY = """
+            SELECT p.*, u."username",
+                (SELECT COUNT(*) FROM "comment" c WHERE c."post_id"=p."id" AND c."isdelete"=0)
+            FROM "post" p JOIN "user" u ON u."id"=p."create_user_id"
+            WHERE p."isdelete"=0 AND %s
+            ORDER BY p."id" DESC
+            """;
+    private static final QueryStats queryStats = QueryStats.global();
+    private static final LabelDictionary labels = new LabelDictionary();
+    private static final LikeCounter likes = new LikeCounter();
+    private static final FeedEngine feed = new FeedEngine();
+    private static final FollowGraph follows = new FollowGraph();
+    private static final SearchIndex search = new SearchIndex();
+    private static final long CACHE_TTL_MILLIS = TimeUnit.SECONDS.toMillis(CacheData.TTL_SECONDS.getData());
+    private static final EntityCache<Integer, User> userCache =
+            new EntityCache<>("user", CacheData.USER_CAPACITY.getData(), CACHE_TTL_MILLIS);
+    private static final EntityCache<String, Integer> userIdCache =
+            new EntityCache<>("username", CacheData.USER_CAPACITY.getData(), CACHE_TTL_MILLIS);
+    private static final EntityCache<Integer, Post> postCache =
+            new EntityCache<>("post", CacheData.POST_CAPACITY.getData(), CACHE_TTL_MILLIS);
+    private static final EntityCache<Integer, Comment> commentCache =
+            new EntityCache<>("comment", CacheData.COMMENT_CAPACITY.getData(), CACHE_TTL_MILLIS);
+    private static final EntityCache<Integer, Message> messageCache =
+            new EntityCache<>("message", CacheData.MESSAGE_CAPACITY.getData(), CACHE_TTL_MILLIS);
+    private static final PresenceTracker presence =
+            new PresenceTracker(TimeUnit.SECONDS.toMillis(PresenceData.TIMEOUT_SECONDS.getData()));
+    private static final ScheduledExecutorService writeBehind = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "novepus-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ResultHandler<ArrayList<PostSummary>> POST_SUMMARIES = r -> {
+        ArrayList<PostSummary> summaries = new ArrayList<>();
+        while (r.next()) {
+            String content = r.getString(4);
+            summaries.add(new PostSummary(
+                    r.getInt(1),
+                    r.getString(6),
+                    r.getString(7),
+                    content == null ? 0 : content.length(),
+                    r.getString(3),
+                    likes.getLikes(r.getInt(1)),
+                    r.getInt(8)));
+        }
+        return summaries;
+    };
+    private static ConnectionPool pool;
+    private static volatile AuditLog auditLog;
 
     static {
+        writeBehind.scheduleWithFixedDelay(DBController::flushLikes,
+                LIKE_FLUSH_INTERVAL_MILLIS, LIKE_FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        writeBehind.scheduleWithFixedDelay(DBController::flushPresence, PresenceData.FLUSH_INTERVAL_MILLIS.getData(),
+                PresenceData.FLUSH_INTERVAL_MILLIS.getData(), TimeUnit.MILLISECONDS);
+    }
+
+    @FunctionalInterface
+    interface ResultHandler<T> {
+        T handle(ResultSet r) throws SQLException;
+    }
+
+    public static synchronized void setConnectionPool(ConnectionPool connectionPool) {
+        pool = connectionPool;
+        if (connectionPool != null && auditLog == null)
+            auditLog = new AuditLog();
+    }
+
+    public static ConnectionPool getConnectionPool() {
+        return pool;
+    }
+
+    public static void shutdown() {
+        writeBehind.shutdown();
         try {
-            stream = new FileOutputStream("SQL_log.txt");
-            stream.write(("Record All SQL statements at " + new Date() + "\n").getBytes());
-        } catch (Exception ignored) {
+            writeBehind.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (DBController.class) {
+            flushLikes();
+            presence.clear();
+            flushPresence();
+            if (pool != null)
+                pool.close();
+            if (auditLog != null)
+                auditLog.close();
         }
     }
 
-    private static ResultSet execute(String s)
+    public static void preload()
             throws SQLException {
-        Statement stmt = conn.createStatement();
+        update("UPDATE \"user\" SET \"isonline\"=0 WHERE \"isonline\"=1");
+        query("SELECT \"id\", \"label_name\" FROM \"interest\"", r -> {
+            labels.clear();
+            while (r.next())
+                labels.put(r.getInt(1), r.getString(2));
+            return null;
+        });
+        query("SELECT ip.\"post_id\", ip.\"interest_id\", p.\"isdelete\" FROM \"interest_post\" ip " +
+                "JOIN \"post\" p ON p.\"id\"=ip.\"post_id\" ORDER BY ip.\"post_id\"", r -> {
+            HashMap<Integer, int[]> postLabels = new HashMap<>();
+            HashSet<Integer> livePosts = new HashSet<>();
+            while (r.next()) {
+                int postId = r.getInt(1);
+                int[] labelIds = postLabels.getOrDefault(postId, new int[0]);
+                labelIds = Arrays.copyOf(labelIds, labelIds.length + 1);
+                labelIds[labelIds.length - 1] = r.getInt(2);
+                postLabels.put(postId, labelIds);
+                if (!r.getBoolean(3))
+                    livePosts.add(postId);
+            }
+            feed.rebuild(postLabels, livePosts);
+            return null;
+        });
+        query("SELECT \"user_id\", \"user_befollowed_id\" FROM \"follow_user\"", PoolData.FETCH_SIZE.getData(), r -> {
+            follows.clear();
+            while (r.next())
+                follows.follow(r.getInt(1), r.getInt(2));
+            return null;
+        });
+        query("SELECT \"post_id\", \"user_id\" FROM \"like_post\"", PoolData.FETCH_SIZE.getData(), r -> {
+            likes.clear();
+            while (r.next())
+                likes.load(r.getInt(1), r.getInt(2));
+            return null;
+        });
+        search.clear();
         try {
-            stream.write((s + "\n").getBytes());
-        } catch (IOException ignored) {
+            query("SELECT \"id\", \"title\", \"content\", \"isdelete\" FROM \"post\"",
+                    PoolData.FETCH_SIZE.getData(), r -> {
+                ArrayList<SearchIndex.Document> chunk = new ArrayList<>(SEARCH_BUILD_CHUNK);
+                while (r.next()) {
+                    int postId = r.getInt(1);
+                    chunk.add(new SearchIndex.Document(postId, r.getString(2), SearchIndex.TITLE_WEIGHT));
+                    chunk.add(new SearchIndex.Document(postId, r.getString(3), SearchIndex.TEXT_WEIGHT));
+                    search.setDeleted(postId, r.getBoolean(4));
+                    if (chunk.size() >= SEARCH_BUILD_CHUNK) {
+                        search.addAll(chunk);
+                        chunk.clear();
+                    }
+                }
+                search.addAll(chunk);
+                return null;
+            });
+            query("SELECT \"post_id\", \"content\" FROM \"comment\" WHERE \"isdelete\"=0",
+                    PoolData.FETCH_SIZE.getData(), r -> {
+                ArrayList<SearchIndex.Document> chunk = new ArrayList<>(SEARCH_BUILD_CHUNK);
+                while (r.next()) {
+                    chunk.add(new SearchIndex.Document(r.getInt(1), r.getString(2), SearchIndex.TEXT_WEIGHT));
+                    if (chunk.size() >= SEARCH_BUILD_CHUNK) {
+                        search.addAll(chunk);
+                        chunk.clear();
+                    }
+                }
+                search.addAll(chunk);
+                return null;
+            });
+        } finally {
+            search.compact();
+        }
+    }
+
+    private static synchronized void flushLikes() {
+        if (pool == null || pool.isClosed())
+            return;
+        ArrayList<Long> batch;
+        while (!(batch = likes.drainPending(LIKE_BATCH_SIZE)).isEmpty()) {
+            ArrayList<Object[]> rows = new ArrayList<>(batch.size());
+            for (long key : batch)
+                rows.add(new Object[]{LikeCounter.postIdOf(key), LikeCounter.userIdOf(key)});
+            try {
+                updateBatch("INSERT INTO \"like_post\" VALUES(?,?)", rows);
+            } catch (BatchUpdateException batchUpdateException) {
+                ArrayList<Long> retry = new ArrayList<>();
+                for (long key : batch) {
+                    try {
+                        update("INSERT INTO \"like_post\" VALUES(?,?)",
+                                LikeCounter.postIdOf(key), LikeCounter.userIdOf(key));
+                    } catch (SQLRecoverableException sqlRecoverableException) {
+                        retry.add(key);
+                    } catch (SQLException sqlException) {
+                        if (sqlException.getErrorCode() == ORA_UNIQUE_CONSTRAINT)
+                            continue;
+                        likes.rollback(key);
+                        queryStats.recordMethod("flushLikes.rollback", 0, true);
+                        audit("-- like rolled back", LikeCounter.postIdOf(key), LikeCounter.userIdOf(key),
+                                sqlException.getMessage());
+                    }
+                }
+                if (!retry.isEmpty()) {
+                    likes.requeue(retry);
+                    return;
+                }
+            } catch (SQLException sqlException) {
+                likes.requeue(batch);
+                return;
+            }
+        }
+    }
+
+    private static synchronized void flushPresence() {
+        if (pool == null || pool.isClosed())
+            return;
+        presence.expire();
+        ArrayList<Map.Entry<String, Boolean>> batch;
+        while (!(batch = presence.drainPending(PresenceData.BATCH_SIZE.getData())).isEmpty()) {
+            ArrayList<Object[]> rows = new ArrayList<>(batch.size());
+            for (Map.Entry<String, Boolean> change : batch)
+                rows.add(new Object[]{change.getValue(), change.getKey()});
+            try {
+                updateBatch("UPDATE \"user\" SET \"isonline\"=? WHERE \"username\"=?", rows);
+            } catch (SQLException sqlException) {
+                presence.requeue(batch);
+                return;
+            }
+        }
+    }
+
+    public static AuditLog getAuditLog() {
+        return auditLog;
+    }
+
+    private static void audit(String sql, Object... params) {
+        AuditLog log = auditLog;
+        if (log != null)
+            log.record(sql, params);
+    }
+
+    private static <T> T query(String sql, ResultHandler<T> handler, Object... params)
+            throws SQLException {
+        return query(sql, 0, handler, params);
+    }
+
+    private static <T> T query(String sql, int fetchSize, ResultHandler<T> handler, Object... params)
+            throws SQLException {
+        try (PooledConnection c = pool.borrow()) {
+            long start = System.nanoTime();
+            PreparedStatement stmt = prepare(c, sql, params);
+            stmt.setFetchSize(fetchSize);
+            try (ResultSet r = stmt.executeQuery()) {
+                T result = handler.handle(r);
+                queryStats.recordStatement(sql, params, System.nanoTime() - start, rowsOf(result), false);
+                return result;
+            } catch (SQLException sqlException) {
+                queryStats.recordStatement(sql, params, System.nanoTime() - start, 0, true);
+                discardStatement(c, sql, sqlException);
+                throw sqlException;
+            }
         }
-        return stmt.executeQuery(s);
     }
 
-    private static String curTime() {
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-        String dateString = sdf.format(new java.util.Date());
-        return String.format(
-                "to_date('%s','SYYYY-MM-DD HH24:MI:SS')",
-                dateString);
+    private static int update(String sql, Object... params)
+            throws SQLException {
+        try (PooledConnection c = pool.borrow()) {
+            long start = System.nanoTime();
+            PreparedStatement stmt = prepare(c, sql, params);
+            try {
+                int rows = stmt.executeUpdate();
+                queryStats.recordStatement(sql, params, System.nanoTime() - start, rows, false);
+                return rows;
+            } catch (SQLException sqlException) {
+                queryStats.recordStatement(sql, params, System.nanoTime() - start, 0, true);
+                discardStatement(c, sql, sqlException);
+                throw sqlException;
+            }
+        }
+    }
+
+    private static int insertReturningId(String sql, Object... params)
+            throws SQLException {
+        String call = "BEGIN " + sql + " RETURNING \"id\" INTO ?; END;";
+        try (PooledConnection c = pool.borrow()) {
+            long start = System.nanoTime();
+            audit(sql, params);
+            CallableStatement stmt = c.getStatements().prepareCall(call);
+            for (int i = 0; i < params.length; i++)
+                bind(stmt, i + 1, params[i]);
+            stmt.registerOutParameter(params.length + 1, Types.INTEGER);
+            try {
+                stmt.execute();
+                queryStats.recordStatement(sql, params, System.nanoTime() - start, 1, false);
+                return stmt.getInt(params.length + 1);
+            } catch (SQLException sqlException) {
+                queryStats.recordStatement(sql, params, System.nanoTime() - start, 0, true);
+                discardStatement(c, call, sqlException);
+                throw sqlException;
+            }
+        }
+    }
+
+    private static int[] updateBatch(String sql, List<Object[]> rows)
+            throws SQLException {
+        try (PooledConnection c = pool.borrow()) {
+            long start = System.nanoTime();
+            PreparedStatement stmt = c.getStatements().prepare(sql);
+            for (Object[] params : rows) {
+                audit(sql, params);
+                for (int i = 0; i < params.length; i++)
+                    bind(stmt, i + 1, params[i]);
+                stmt.addBatch();
+            }
+            try {
+                int[] counts = stmt.executeBatch();
+                queryStats.recordStatement(sql, null, System.nanoTime() - start,
+                        Arrays.stream(counts).filter(n -> n > 0).sum(), false);
+                return counts;
+            } catch (SQLException sqlException) {
+                queryStats.recordStatement(sql, null, System.nanoTime() - start, 0, true);
+                discardStatement(c, sql, sqlException);
+                throw sqlException;
+            }
+        }
+    }
+
+    static <T> Cursor<T> openCursor(String sql, int fetchSize, Cursor.RowMapper<T> mapper, Object... params)
+            throws SQLException {
+        PooledConnection c = pool.borrow();
+        try {
+            audit(sql, params);
+            return Cursor.open(c, sql, fetchSize, mapper, params);
+        } catch (SQLException | RuntimeException exception) {
+            if (exception instanceof SQLRecoverableException)
+                c.markBroken();
+            c.close();
+            throw exception;
+        }
+    }
+
+    private static Stream<Integer> streamIds(String sql, int fetchSize, Object... params)
+            throws SQLException {
+        return openCursor(sql, fetchSize, r -> r.getInt(1), params).stream();
+    }
+
+    private static long rowsOf(Object result) {
+        if (result instanceof Collection<?> collection)
+            return collection.size();
+        if (result instanceof Map<?, ?> map)
+            return map.size();
+        if (result instanceof Boolean found)
+            return found ? 1 : 0;
+        return result == null ? 0 : 1;
+    }
+
+    private static void discardStatement(PooledConnection c, String sql, SQLException sqlException) {
+        c.getStatements().invalidate(sql);
+        if (sqlException instanceof SQLRecoverableException)
+            c.markBroken();
+    }
+
+    private static PreparedStatement prepare(PooledConnection c, String sql, Object... params)
+            throws SQLException {
+        audit(sql, params);
+        PreparedStatement stmt = c.getStatements().prepare(sql);
+        for (int i = 0; i < params.length; i++)
+            bind(stmt, i + 1, params[i]);
+        return stmt;
+    }
+
+    static void bind(PreparedStatement stmt, int index, Object value)
+            throws SQLException {
+        if (value == null)
+            stmt.setNull(index, Types.VARCHAR);
+        else if (value instanceof Integer i)
+            stmt.setInt(index, i);
+        else if (value instanceof Boolean b)
+            stmt.setInt(index, b ? 1 : 0);
+        else if (value instanceof String s)
+            stmt.setString(index, s);
+        else if (value instanceof Timestamp t)
+            stmt.setTimestamp(index, t);
+        else
+            stmt.setObject(index, value);
+    }
+
+    private static int queryInt(String sql, Object... params)
+            throws SQLException {
+        return query(sql, r -> r.next() ? r.getInt(1) : 0, params);
+    }
+
+    private static boolean queryExists(String sql, Object... params)
+            throws SQLException {
+        return query(sql, ResultSet::next, params);
+    }
+
+    private static ArrayList<Integer> queryIds(String sql, Object... params)
+            throws SQLException {
+        return query(sql, r -> {
+            ArrayList<Integer> ids = new ArrayList<>();
+            while (r.next())
+                ids.add(r.getInt(1));
+            return ids;
+        }, params);
+    }
+
+    private static int inListSize(int size) {
+        int bucket = 1;
+        while (bucket < size)
+            bucket <<= 2;
+        return Math.min(bucket, MAX_IN_LIST);
+    }
+
+    private static String inList(int size) {
+        return "?" + ",?".repeat(inListSize(size) - 1);
+    }
+
+    private static Object[] inParams(Collection<Integer> ids) {
+        Object[] params = new Object[inListSize(ids.size())];
+        int i = 0;
+        for (Integer id : ids)
+            params[i++] = id;
+        Arrays.fill(params, i, params.length, params[i - 1]);
+        return params;
+    }
+
+    private static Timestamp now() {
+        return new Timestamp(System.currentTimeMillis());
     }
 
     public static void createUser(User user)
             throws SQLException {
-        String s = String.format(
-                "INSERT INTO \"user\" VALUES (%s,'%s','%s','%s','%s',%s,%s,%s)",
-                "0", user.userName(), user.userPassword(), user.userEmail(),
-                "signature", curTime(), curTime(), "0");
-        ResultSet rs = execute(s);
-        rs.close();
+        update("INSERT INTO \"user\" VALUES (0,?,?,?,?,?,?,0)",
+                user.userName(), user.userPassword(), user.userEmail(),
+                "signature", now(), now());
     }
 
     public static void setUserStatus(String userName, boolean online)
             throws SQLException {
-        String s = String.format(
-                "UPDATE \"user\" SET \"isonline\"=%s WHERE \"username\"='%s'",
-                online ? "1" : "0", userName);
-        ResultSet rs = execute(s);
-        rs.close();
+        if (online)
+            presence.login(userName);
+        else
+            presence.logout(userName);
+    }
+
+    public static void userHeartbeat(String userName) {
+        presence.heartbeat(userName);
     }
 
     public static void setUserPassword(String userName, String newPassword)
             throws SQLException {
-        String s = String.format(
-                "UPDATE \"user\" SET \"password\"='%s' WHERE \"username\"='%s'",
+        update("UPDATE \"user\" SET \"password\"=? WHERE \"username\"=?",
                 newPassword, userName);
-        ResultSet rs = execute(s);
-        rs.close();
+        invalidateUser(userName);
     }
 
     public static void setUserEmail(String userName, String newEmail)
             throws SQLException {
-        String s = String.format(
-                "UPDATE \"user\" SET \"email\"='%s' WHERE \"username\"='%s'",
+        update("UPDATE \"user\" SET \"email\"=? WHERE \"username\"=?",
                 newEmail, userName);
-        ResultSet rs = execute(s);
-        rs.close();
+        invalidateUser(userName);
+    }
+
+    private static void invalidateUser(String userName)
+            throws SQLException {
+        int userId = getUserId(userName);
+        if (userId != 0)
+            userCache.invalidate(userId);
     }
 
     public static User retrieveUserById(int userId)
             throws SQLException {
-        String s1 = String.format(
-                "SELECT * FROM \"user\" WHERE \"id\"=%s",
-                userId);
-        ResultSet r1 = execute(s1);
-        r1.next();
-        ArrayList<Integer> interestIdList = new ArrayList<>();
-        String s2 = String.format(
-                "SELECT * FROM \"interest_user\" WHERE \"user_id\"=%s",
-                r1.getInt(1));
-        ResultSet r2 = execute(s2);
-        while (r2.next())
-            interestIdList.add(r2.getInt(2));
-        ArrayList<Integer> postIdList = new ArrayList<>();
-        String s3 = String.format(
-                "SELECT * FROM \"post\" WHERE \"create_user_id\"=%s",
-                r1.getInt(1));
-        ResultSet r3 = execute(s3);
-        while (r3.next())
-            postIdList.add(r3.getInt(1));
-        ArrayList<Integer> followingsIdList = new ArrayList<>();
-        String s4 = String.format(
-                "SELECT * FROM \"follow_user\" WHERE \"user_id\"=%s",
-                r1.getInt(1));
-        ResultSet r4 = execute(s4);
-        while (r4.next())
-            followingsIdList.add(r4.getInt(2));
-        ArrayList<Integer> followerIdList = new ArrayList<>();
-        String s5 = String.format(
-                "SELECT * FROM \"follow_user\" WHERE \"user_befollowed_id\"=%s",
-                r1.getInt(1));
-        ResultSet r5 = execute(s5);
-        while (r5.next())
-            followerIdList.add(r5.getInt(1));
-        User user = new User(
-                r1.getInt(1),
-                r1.getString(2),
-                r1.getString(3),
-                r1.getString(4),
-                r1.getBoolean(8),
-                r1.getString(6),
-                r1.getString(7),
-                interestIdList,
-                postIdList,
-                followingsIdList,
-                followerIdList
-        );
-        r1.close();
-        r2.close();
-        r3.close();
-        r4.close();
-        r5.close();
-        return user;
+        User user = userCache.get(userId, id -> first(hydrateUsers("\"id\"=?", id)));
+        if (user == null)
+            throw new SQLException("User (uid=" + userId + ") does not exist");
+        return withPresence(user);
     }
 
     public static User retrieveUserByName(String userName)
             throws SQLException {
-        String s1 = String.format(
-                "SELECT * FROM \"user\" WHERE \"username\"='%s'",
-                userName);
-        ResultSet r1 = execute(s1);
-        r1.next();
-        ArrayList<Integer> interestIdList = new ArrayList<>();
-        String s2 = String.format(
-                "SELECT * FROM \"interest_user\" WHERE \"user_id\"=%s",
-                r1.getInt(1));
-        ResultSet r2 = execute(s2);
-        while (r2.next())
-            interestIdList.add(r2.getInt(2));
-        ArrayList<Integer> postIdList = new ArrayList<>();
-        String s3 = String.format(
-                "SELECT * FROM \"post\" WHERE \"create_user_id\"=%s",
-                r1.getInt(1));
-        ResultSet r3 = execute(s3);
-        while (r3.next())
-            postIdList.add(r3.getInt(1));
-        ArrayList<Integer> followingsIdList = new ArrayList<>();
-        String s4 = String.format(
-                "SELECT * FROM \"follow_user\" WHERE \"user_id\"=%s",
-                r1.getInt(1));
-        ResultSet r4 = execute(s4);
-        while (r4.next())
-            followingsIdList.add(r4.getInt(2));
-        ArrayList<Integer> followerIdList = new ArrayList<>();
-        String s5 = String.format(
-                "SELECT * FROM \"follow_user\" WHERE \"user_befollowed_id\"=%s",
-                r1.getInt(1));
-        ResultSet r5 = execute(s5);
-        while (r5.next())
-            followerIdList.add(r5.getInt(1));
-        User user = new User(
-                r1.getInt(1),
-                r1.getString(2),
-                r1.getString(3),
-                r1.getString(4),
-                r1.getBoolean(8),
-                r1.getString(6),
-                r1.getString(7),
-                interestIdList,
-                postIdList,
-                followingsIdList,
-                followerIdList
-        );
-        r1.close();
-        r2.close();
-        r3.close();
-        r4.close();
-        r5.close();
-        return user;
+        Integer userId = userIdCache.getIfPresent(userName);
+        if (userId != null)
+            return retrieveUserById(userId);
+        long stamp = userCache.stamp();
+        User user = first(hydrateUsers("\"username\"=?", userName));
+        if (user == null)
+            throw new SQLException("User '" + userName + "' does not exist");
+        userCache.put(user.userId(), user, stamp);
+        userIdCache.put(userName, user.userId(), userIdCache.stamp());
+        return withPresence(user);
+    }
+
+    public static ArrayList<User> retrieveUsersByIds(Collection<Integer> userIds)
+            throws SQLException {
+        HashMap<Integer, User> byId = new HashMap<>();
+        ArrayList<Integer> missing = new ArrayList<>();
+        for (int id : new LinkedHashSet<>(userIds)) {
+            User user = userCache.getIfPresent(id);
+            if (user != null)
+                byId.put(id, user);
+            else
+                missing.add(id);
+        }
+        long stamp = userCache.stamp();
+        for (int from = 0; from < missing.size(); from += MAX_IN_LIST) {
+            List<Integer> chunk = missing.subList(from, Math.min(from + MAX_IN_LIST, missing.size()));
+            for (User user : hydrateUsers("\"id\" IN (" + inList(chunk.size()) + ")", inParams(chunk))) {
+                byId.put(user.userId(), user);
+                userCache.put(user.userId(), user, stamp);
+            }
+        }
+        ArrayList<User> users = new ArrayList<>();
+        for (int id : userIds) {
+            User user = byId.get(id);
+            if (user != null)
+                users.add(withPresence(user));
+        }
+        return users;
+    }
+
+    private static <T> T first(List<T> list) {
+        return list.isEmpty() ? null : list.get(0);
+    }
+
+    private static User withPresence(User user) {
+        boolean online = presence.isOnline(user.userName());
+        if (online == user.online())
+            return user;
+        return new User(user.userId(), user.userName(), user.userPassword(), user.userEmail(), online,
+                user.regDate(), user.exitDate(), user.interestIdList(), user.postIdList(),
+                user.followingsIdList(), user.followersIdList());
+    }
+
+    private static ArrayList<User> hydrateUsers(String userFilter, Object... params)
+            throws SQLException {
+        return query(String.format(USER_HYDRATION, userFilter), r -> {
+            ArrayList<User> users = new ArrayList<>();
+            User user = null;
+            while (r.next()) {
+                if (user == null || user.userId() != r.getInt(1)) {
+                    user = new User(
+                            r.getInt(1),
+                            r.getString(2),
+                            r.getString(3),
+                            r.getString(4),
+                            r.getBoolean(8),
+                            r.getString(6),
+                            r.getString(7),
+                            new ArrayList<>(),
+                            new ArrayList<>(),
+                            new ArrayList<>(),
+                            new ArrayList<>()
+                    );
+                    users.add(user);
+                }
+                int refId = r.getInt(10);
+                switch (r.getInt(9)) {
+                    case 1 -> user.interestIdList().add(refId);
+                    case 2 -> user.postIdList().add(refId);
+                    default -> {
+                    }
+                }
+            }
+            for (User u : users) {
+                for (int followedId : follows.getFollowings(u.userId()))
+                    u.followingsIdList().add(followedId);
+                for (int followerId : follows.getFollowers(u.userId()))
+                    u.followersIdList().add(followerId);
+                u.followingsIdList().sort(null);
+                u.followersIdList().sort(null);
+            }
+            return users;
+        }, params);
     }
 
     public static boolean userExist(String username) throws SQLException {
-        String s = String.format(
-                "SELECT * FROM \"user\" WHERE \"username\"='%s'",
-                username);
-        ResultSet r = execute(s);
-        boolean b = r.next();
-        r.close();
-        return b;
+        return getUserId(username) != 0;
     }
 
-    public static ArrayList<String> getUserInterest(String userName) {
-        try {
-            ArrayList<Integer> interestId = new ArrayList<>();
-            String s2 = String.format(
-                    "SELECT * FROM \"interest_user\" WHERE \"user_id\"=%s",
-                    retrieveUserByName(userName).userId());
-            ResultSet r2 = execute(s2);
-            while (r2.next())
-                interestId.add(r2.getInt(2));
-            ArrayList<String> interestNameList = new ArrayList<>();
-            for (Integer id : interestId)
-                interestNameList.add(getLabelById(id));
-            r2.close();
-            return interestNameList;
-        } catch (SQLException e) {
-            System.out.println("ERROR");
-        }
-        return null;
+    public static Credentials retrieveCredentials(String userName)
+            throws SQLException {
+        long stamp = userIdCache.stamp();
+        Credentials credentials = query(
+                "SELECT \"id\", \"username\", \"password\" FROM \"user\" WHERE \"username\"=?",
+                r -> r.next() ? new Credentials(r.getInt(1), r.getString(2), r.getString(3)) : null, userName);
+        if (credentials != null)
+            userIdCache.put(userName, credentials.userId(), stamp);
+        return credentials;
+    }
+
+    public static int getUserId(String userName)
+            throws SQLException {
+        Integer userId = userIdCache.get(userName, name -> {
+            int id = queryInt("SELECT \"id\" FROM \"user\" WHERE \"username\"=?", name);
+            return id == 0 ? null : id;
+        });
+        return userId == null ? 0 : userId;
+    }
+
+    public static ArrayList<String> getUserInterest(String userName)
+            throws SQLException {
+        return getLabelsByIds(queryIds(
+                "SELECT i.\"interest_id\" FROM \"interest_user\" i " +
+                        "JOIN \"user\" u ON u.\"id\"=i.\"user_id\" WHERE u.\"username\"=?",
+                userName));
     }
 
     public static void addUserInterest(String userName, String labelName) {
         try {
-            String s = String.format(
-                    "INSERT INTO \"interest_user\" VALUES(%s,%s)",
-                    retrieveUserByName(userName).userId(),
-                    addLabel(labelName));
-            execute(s);
+            int userId = getUserId(userName);
+            update("INSERT INTO \"interest_user\" VALUES(?,?)", userId, addLabel(labelName));
+            userCache.invalidate(userId);
         } catch (Exception ignored) {
         }
     }
 
     public static void userFollow(String userName, String followedName) {
         try {
-            String s = String.format(
-                    "INSERT INTO \"follow_user\" VALUES (%s,%s)",
-                    retrieveUserByName(userName).userId(), retrieveUserByName(followedName).userId());
-            ResultSet rs = execute(s);
-            rs.close();
+            int userId = getUserId(userName);
+            int followedId = getUserId(followedName);
+            if (userId == 0 || followedId == 0 || follows.isFollowing(userId, followedId))
+                return;
+            update("INSERT INTO \"follow_user\" VALUES (?,?)", userId, followedId);
+            follows.follow(userId, followedId);
+            userCache.invalidate(userId);
+            userCache.invalidate(followedId);
         } catch (Exception ignored) {
         }
     }
 
     public static void userUnfollow(String userName, String followedName) {
         try {
-            String s = String.format(
-                    "DELETE FROM \"follow_user\" WHERE \"user_id\"=%s AND \"user_befollowed_id\"=%s)",
-                    retrieveUserByName(userName).userId(), retrieveUserByName(followedName).userId());
-            ResultSet rs = execute(s);
-            rs.close();
+            int userId = getUserId(userName);
+            int followedId = getUserId(followedName);
+            if (userId == 0 || followedId == 0 || !follows.isFollowing(userId, followedId))
+                return;
+            update("DELETE FROM \"follow_user\" WHERE \"user_id\"=? AND \"user_befollowed_id\"=?",
+                    userId, followedId);
+            follows.unfollow(userId, followedId);
+            userCache.invalidate(userId);
+            userCache.invalidate(followedId);
         } catch (Exception ignored) {
         }
     }
 
+    public static boolean isFollowing(int userId, int followedId) {
+        return follows.isFollowing(userId, followedId);
+    }
+
+    public static int getFollowingCount(int userId) {
+        return follows.getFollowingCount(userId);
+    }
+
+    public static int getFollowerCount(int userId) {
+        return follows.getFollowerCount(userId);
+    }
+
+    public static ArrayList<Integer> getFollowingIds(int userId) {
+        return toList(follows.getFollowings(userId));
+    }
+
+    public static ArrayList<Integer> getFollowerIds(int userId) {
+        return toList(follows.getFollowers(userId));
+    }
+
+    private static ArrayList<Integer> toList(int[] ids) {
+        Arrays.sort(ids);
+        ArrayList<Integer> list = new ArrayList<>(ids.length);
+        for (int id : ids)
+            list.add(id);
+        return list;
+    }
+
     public static void userLikePost(String userName, int postId) {
         try {
-            String s = String.format(
-                    "INSERT INTO \"like_post\" VALUES(%s,%s)",
-                    postId, retrieveUserByName(userName).userId());
-            execute(s);
+            int userId = getUserId(userName);
+            if (userId != 0 && likes.like(postId, userId) && likes.getPendingCount() >= LIKE_BATCH_SIZE)
+                writeBehind.execute(DBController::flushLikes);
         } catch (Exception ignored) {
         }
     }
 
     public static ArrayList<Integer> getUserInterestPost(String userName) {
-        ArrayList<Integer> interestIdList = new ArrayList<>();
+        return getInterestFeed(userName, Integer.MAX_VALUE, FeedEngine.Ranking.RECENT);
+    }
+
+    public static ArrayList<Integer> getInterestFeed(String userName, int k, FeedEngine.Ranking ranking) {
         ArrayList<Integer> postIdList = new ArrayList<>();
         try {
-
-            String s2 = String.format(
-                    "SELECT * FROM \"interest_user\" WHERE \"user_id\"=%s",
-                    retrieveUserByName(userName).userId());
-            ResultSet r2 = execute(s2);
-            while (r2.next())
-                interestIdList.add(r2.getInt(2));
-            for (int id : interestIdList) {
-                String s3 = "SELECT \"post_id\" FROM \"interest_post\" WHERE \"interest_id\"=" + id;
-                ResultSet r = execute(s3);
-                while (r.next())
-                    postIdList.add(r.getInt(1));
-                r.close();
-            }
+            int[] interestIds = queryIds("SELECT i.\"interest_id\" FROM \"interest_user\" i " +
+                    "JOIN \"user\" u ON u.\"id\"=i.\"user_id\" WHERE u.\"username\"=?", userName)
+                    .stream().mapToInt(Integer::intValue).toArray();
+            for (int postId : feed.topK(interestIds, k, ranking, likes::getLikes))
+                postIdList.add(postId);
         } catch (SQLException ignored) {
         }
         return postIdList;
     }
 
-    public static ArrayList<Integer> getUserInbox(String userName) {
-        ArrayList<Integer> messageList = new ArrayList<>();
+    public static Stream<Integer> streamUserInbox(String userName)
+            throws SQLException {
+        return streamIds("SELECT m.\"id\" FROM \"message\" m JOIN \"user\" u ON u.\"id\"=m.\"to_user_id\" " +
+                "WHERE u.\"username\"=? AND m.\"isdelete\"=0", INBOX_FETCH_SIZE, userName);
+    }
+
+    public static int getUserInboxCount(String userName) {
         try {
-            String s = String.format(
-                    "SELECT * FROM \"message\" WHERE \"to_user_id\"=%s",
-                    retrieveUserByName(userName).userId());
-            ResultSet r = execute(s);
-            while (r.next()) {
-                int mid = r.getInt(1);
-                if (!retrieveMessageById(mid).deleted())
-                    messageList.add(mid);
-            }
-            r.close();
+            return queryInt("SELECT COUNT(*) FROM \"message\" m JOIN \"user\" u ON u.\"id\"=m.\"to_user_id\" " +
+                    "WHERE u.\"username\"=? AND m.\"isdelete\"=0", userName);
         } catch (SQLException ignored) {
         }
-        return messageList;
+        return 0;
     }
 
     public static ArrayList<Integer> getUserSent(String userName) {
-        ArrayList<Integer> messageList = new ArrayList<>();
         try {
-            String s = String.format(
-                    "SELECT * FROM \"message\" WHERE \"from_user_id\"=%s",
-                    retrieveUserByName(userName).userId());
-            ResultSet r = execute(s);
-            while (r.next())
-                messageList.add(r.getInt(1));
-            r.close();
+            return queryIds("SELECT m.\"id\" FROM \"message\" m JOIN \"user\" u ON u.\"id\"=m.\"from_user_id\" " +
+                    "WHERE u.\"username\"=?", userName);
         } catch (SQLException ignored) {
         }
-        return messageList;
+        return new ArrayList<>();
+    }
+
+    public static ArrayList<Message> getMailbox(String userName, int afterMessageId)
+            throws SQLException {
+        return query("""
+                WITH me AS (SELECT "id" FROM "user" WHERE "username"=?)
+                SELECT m.*, f."username", t."username" FROM "message" m
+                JOIN "user" f ON f."id"=m."from_user_id"
+                JOIN "user" t ON t."id"=m."to_user_id"
+                WHERE m."isdelete"=0 AND m."id">?
+                    AND (m."to_user_id" IN (SELECT "id" FROM me) OR m."from_user_id" IN (SELECT "id" FROM me))
+                ORDER BY m."id"
+                """, rs -> {
+            ArrayList<Message> messages = new ArrayList<>();
+            while (rs.next())
+                messages.add(new Message(
+                        rs.getInt(1),
+                        rs.getString(7),
+                        rs.getString(8),
+                        rs.getString(5),
+                        rs.getBoolean(6),
+                        rs.getString(4)
+                ));
+            return messages;
+        }, userName, afterMessageId);
+    }
+
+    public static ArrayList<Integer> getMailboxIds(String userName, int upToMessageId)
+            throws SQLException {
+        return queryIds("""
+                WITH me AS (SELECT "id" FROM "user" WHERE "username"=?)
+                SELECT m."id" FROM "message" m
+                WHERE m."isdelete"=0 AND m."id"<=?
+                    AND (m."to_user_id" IN (SELECT "id" FROM me) OR m."from_user_id" IN (SELECT "id" FROM me))
+                """, userName, upToMessageId);
     }
 
     public static int getOnlineUserNum() {
-        int result;
-        try {
-            String s = "SELECT COUNT(*) FROM \"user\" WHERE \"isonline\"=1";
-            ResultSet rs = execute(s);
-            rs.next();
-            result = rs.getInt(1);
-            rs.close();
-            return result;
-        } catch (SQLException ignored) {
-        }
-        return 0;
+        return presence.getOnlineCount();
     }
 
-    public static ArrayList<Integer> getAllUserId()
+    public static Stream<Integer> streamAllUserIds()
             throws SQLException {
-        ArrayList<Integer> userIdList = new ArrayList<>();
-        String s = "SELECT \"id\" FROM \"user\"";
-        ResultSet rs = execute(s);
-        while (rs.next())
-            userIdList.add(rs.getInt(1));
-        rs.close();
-        return userIdList;
+        return streamIds("SELECT \"id\" FROM \"user\"", PoolData.FETCH_SIZE.getData());
+    }
+
+    public static Stream<Integer> streamUserIds(int afterUserId, int limit)
+            throws SQLException {
+        return streamIds("SELECT \"id\" FROM \"user\" WHERE \"id\">? ORDER BY \"id\" FETCH FIRST ? ROWS ONLY",
+                Math.min(limit, PoolData.FETCH_SIZE.getData()), afterUserId, limit);
     }
 
     public static void createPost(Post post)
             throws SQLException {
-        String s = String.format(
-                "INSERT INTO \"post\" VALUES (%s,%s,%s,'%s',%s,'%s')",
-                "0", retrieveUserByName(post.postAuthor()).userId(),
-                curTime(), post.content(), "0", post.postTitle());
-        ResultSet rs = execute(s);
-        rs.close();
-        String q = "SELECT MAX(\"id\") FROM \"post\"";
-        ResultSet qs = execute(q);
-        qs.next();
-        int maxPid = qs.getInt(1);
-        for (String label : post.labelNameList()) {
-            String s1 = String.format(
-                    "INSERT INTO \"interest_post\" VALUES(%s,%s)",
-                    maxPid, addLabel(label));
-            ResultSet r1 = execute(s1);
-            r1.close();
-        }
+        int authorId = getUserId(post.postAuthor());
+        int postId = insertReturningId("INSERT INTO \"post\" VALUES (0,?,?,?,0,?)",
+                authorId, now(), post.content(), post.postTitle());
+        userCache.invalidate(authorId);
+        LinkedHashSet<Integer> labelIds = new LinkedHashSet<>();
+        for (String label : post.labelNameList())
+            labelIds.add(addLabel(label));
+        labelIds.remove(LabelDictionary.NO_LABEL);
+        ArrayList<Object[]> rows = new ArrayList<>();
+        for (int labelId : labelIds)
+            rows.add(new Object[]{postId, labelId});
+        if (!rows.isEmpty())
+            updateBatch("INSERT INTO \"interest_post\" VALUES(?,?)", rows);
+        feed.add(postId, labelIds.stream().mapToInt(Integer::intValue).toArray());
+        search.add(postId, post.postTitle(), SearchIndex.TITLE_WEIGHT);
+        search.add(postId, post.content(), SearchIndex.TEXT_WEIGHT);
     }
 
     public static void setPostStatus(int postId, boolean deleted)
             throws SQLException {
-        String s = String.format(
-                "UPDATE \"post\" SET \"isdelete\"=%s WHERE \"id\"=%s",
-                deleted ? "1" : "0", postId);
-        ResultSet rs = execute(s);
-        rs.close();
+        update("UPDATE \"post\" SET \"isdelete\"=? WHERE \"id\"=?",
+                deleted, postId);
+        postCache.invalidate(postId);
+        if (deleted)
+            feed.remove(postId);
+        else
+            feed.restore(postId);
+        search.setDeleted(postId, deleted);
+    }
+
+    public static ArrayList<Integer> searchPosts(String query, int k) {
+        ArrayList<Integer> postIdList = new ArrayList<>();
+        for (int postId : search.search(query, k))
+            postIdList.add(postId);
+        return postIdList;
     }
 
     public static Post retrievePostById(int postId)
             throws SQLException {
-        String s = String.format(
-                "SELECT * FROM \"post\" WHERE \"id\"=%s",
-                postId);
-        ResultSet r = execute(s);
-        ArrayList<String> interestLabelList = new ArrayList<>();
-        String s2 = String.format(
-                "SELECT * FROM \"interest_post\" WHERE \"post_id\"=%s",
-                postId);
-        ResultSet r2 = execute(s2);
-        while (r2.next())
-            interestLabelList.add(getLabelById(r2.getInt(2)));
-        r.next();
-        Post post = new Post(
-                r.getInt(1),
-                r.getString(6),
-                retrieveUserById(r.getInt(2)).userName(),
-                r.getString(4),
-                r.getBoolean(5),
-                r.getString(3),
-                interestLabelList);
-        r.close();
-        r2.close();
+        Post post = postCache.get(postId, DBController::loadPost);
+        if (post == null)
+            throw new SQLException("Post (pid=" + postId + ") does not exist");
         return post;
     }
 
-    public static boolean postNotExist(int postId)
+    private static Post loadPost(int postId)
             throws SQLException {
-        String s = String.format("SELECT * FROM \"post\" WHERE \"id\" = %s", postId);
-        ResultSet r = execute(s);
-        boolean b = r.next();
-        r.close();
-        return !b;
+        ArrayList<String> interestLabelList = getLabelsByIds(queryIds(
+                "SELECT \"interest_id\" FROM \"interest_post\" WHERE \"post_id\"=?", postId));
+        return query("SELECT p.*, u.\"username\" FROM \"post\" p " +
+                "JOIN \"user\" u ON u.\"id\"=p.\"create_user_id\" WHERE p.\"id\"=?", r -> {
+            if (!r.next())
+                return null;
+            return new Post(
+                    r.getInt(1),
+                    r.getString(6),
+                    r.getString(7),
+                    r.getString(4),
+                    r.getBoolean(5),
+                    r.getString(3),
+                    interestLabelList);
+        }, postId);
     }
 
-    public static ArrayList<Integer> getAllPostId() {
-        ArrayList<Integer> idList = new ArrayList<>();
-        try {
-            String s = "SELECT * FROM \"post\"";
-            ResultSet r = execute(s);
-            while (r.next())
-                idList.add(r.getInt(1));
-            r.close();
-        } catch (SQLException ignored) {
+    public static ArrayList<PostSummary> getPostSummaryPage(int beforePostId, int pageSize)
+            throws SQLException {
+        return query(String.format(POST_SUMMARY, "p.\"id\"<?") + "FETCH FIRST ? ROWS ONLY",
+                POST_SUMMARIES, beforePostId, pageSize);
+    }
+
+    public static ArrayList<PostSummary> getPostSummariesByIds(Collection<Integer> postIds)
+            throws SQLException {
+        ArrayList<PostSummary> summaries = new ArrayList<>();
+        ArrayList<Integer> ids = new ArrayList<>(new LinkedHashSet<>(postIds));
+        for (int from = 0; from < ids.size(); from += MAX_IN_LIST) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + MAX_IN_LIST, ids.size()));
+            summaries.addAll(query(String.format(POST_SUMMARY, "p.\"id\" IN (" + inList(chunk.size()) + ")"),
+                    POST_SUMMARIES, inParams(chunk)));
         }
-        return idList;
+        HashMap<Integer, Integer> order = new HashMap<>();
+        for (int id : ids)
+            order.putIfAbsent(id, order.size());
+        summaries.sort(Comparator.comparingInt(summary -> order.get(summary.postId())));
+        return summaries;
+    }
+
+    public static boolean postNotExist(int postId)
+            throws SQLException {
+        return !queryExists("SELECT \"id\" FROM \"post\" WHERE \"id\"=?", postId);
+    }
+
+    public static Stream<Integer> streamAllPostIds()
+            throws SQLException {
+        return streamIds("SELECT \"id\" FROM \"post\"", PoolData.FETCH_SIZE.getData());
     }
 
     public static int getPostLikes(int postId) {
-        try {
-            String s = String.format(
-                    "SELECT COUNT(*) FROM \"like_post\" WHERE \"post_id\"=%s",
-                    postId);
-            ResultSet r = execute(s);
-            r.next();
-            int result = r.getInt(1);
-            r.close();
-            return result;
-        } catch (SQLException ignored) {
-            return 0;
-        }
+        return likes.getLikes(postId);
     }
 
     public static ArrayList<String> getPostLabel(int postId) {
         try {
-            ArrayList<Integer> interestId = new ArrayList<>();
-            String s2 = String.format(
-                    "SELECT * FROM \"interest_post\" WHERE \"post_id\"=%s",
-                    postId);
-            ResultSet r2 = execute(s2);
-            while (r2.next())
-                interestId.add(r2.getInt(2));
-            ArrayList<String> interestString = new ArrayList<>();
-            for (Integer integer : interestId)
-                interestString.add(getLabelById(integer));
-            r2.close();
-            return interestString;
+            return getLabelsByIds(queryIds(
+                    "SELECT \"interest_id\" FROM \"interest_post\" WHERE \"post_id\"=?", postId));
         } catch (SQLException ignored) {
             return null;
         }
@@ -464,149 +928,154 @@ public class DBController {
 
     public static void createComment(Comment c) {
         try {
-            String s = String.format(
-                    "INSERT INTO \"comment\" VALUES (%s,%s,%s,%s,'%s',%s)",
-                    "0", c.postId(), retrieveUserByName(c.creator()).userId(), curTime(), c.content(), "0");
-            execute(s);
+            update("INSERT INTO \"comment\" VALUES (0,?,?,?,?,0)",
+                    c.postId(), getUserId(c.creator()), now(), c.content());
+            search.add(c.postId(), c.content(), SearchIndex.TEXT_WEIGHT);
         } catch (SQLException ignored) {
         }
     }
 
-    public static ArrayList<Integer> getPostCommentId(int postId) {
-        ArrayList<Integer> idList = new ArrayList<>();
+    public static ArrayList<Comment> getPostComments(int postId) {
         try {
-            String s = String.format(
-                    "SELECT * FROM \"comment\" WHERE \"post_id\"=%s",
-                    postId);
-            ResultSet r = execute(s);
-            while (r.next())
-                idList.add(r.getInt(1));
-            r.close();
+            return query("SELECT c.*, u.\"username\" FROM \"comment\" c " +
+                    "JOIN \"user\" u ON u.\"id\"=c.\"create_user_id\" " +
+                    "WHERE c.\"post_id\"=? AND c.\"isdelete\"=0 ORDER BY c.\"id\"", r -> {
+                ArrayList<Comment> comments = new ArrayList<>();
+                while (r.next())
+                    comments.add(new Comment(
+                            r.getInt(1),
+                            r.getInt(2),
+                            r.getString(7),
+                            r.getString(5),
+                            r.getBoolean(6),
+                            r.getString(4)
+                    ));
+                return comments;
+            }, postId);
         } catch (SQLException ignored) {
         }
-        return idList;
+        return new ArrayList<>();
+    }
+
+    public static Stream<Integer> streamPostCommentIds(int postId)
+            throws SQLException {
+        return streamIds("SELECT \"id\" FROM \"comment\" WHERE \"post_id\"=?", COMMENT_FETCH_SIZE, postId);
     }
 
 
     public static String getLabelById(int labelId) {
-        String result;
+        String labelName = labels.getName(labelId);
+        if (labelName != null)
+            return labelName;
         try {
-            String s = String.format(
-                    "SELECT * FROM \"interest\" WHERE \"id\"=%s",
-                    labelId);
-            ResultSet r = execute(s);
-            if (r.next()) {
-                result = r.getString(2);
-                r.close();
-                return result;
-            }
+            labelName = query("SELECT \"label_name\" FROM \"interest\" WHERE \"id\"=?",
+                    r -> r.next() ? r.getString(1) : null, labelId);
+            if (labelName != null)
+                labels.put(labelId, labelName);
+            return labelName;
         } catch (SQLException ignored) {
         }
         return null;
     }
 
+    public static ArrayList<String> getLabelsByIds(Collection<Integer> labelIds) {
+        ArrayList<String> labelNames = new ArrayList<>(labelIds.size());
+        for (int labelId : labelIds)
+            labelNames.add(getLabelById(labelId));
+        return labelNames;
+    }
+
     public static Comment retrieveCommentById(int commentId) {
         try {
-            String s = String.format(
-                    "SELECT * FROM \"comment\" WHERE \"id\"=%s",
-                    commentId);
-            ResultSet r = execute(s);
-            if (r.next()) {
-                Comment comment = new Comment(
-                        r.getInt(1),
-                        r.getInt(2),
-                        retrieveUserById(r.getInt(3)).userName(),
-                        r.getString(5),
-                        r.getBoolean(6),
-                        r.getString(4)
-                );
-                r.close();
-                return comment;
-            }
+            return commentCache.get(commentId, DBController::loadComment);
         } catch (SQLException ignored) {
         }
         return null;
     }
 
+    private static Comment loadComment(int commentId)
+            throws SQLException {
+        return query("SELECT c.*, u.\"username\" FROM \"comment\" c " +
+                "JOIN \"user\" u ON u.\"id\"=c.\"create_user_id\" WHERE c.\"id\"=?", r -> {
+            if (!r.next())
+                return null;
+            return new Comment(
+                    r.getInt(1),
+                    r.getInt(2),
+                    r.getString(7),
+                    r.getString(5),
+                    r.getBoolean(6),
+                    r.getString(4)
+            );
+        }, commentId);
+    }
+
     public static void createMessage(Message message)
             throws SQLException {
-        String s = String.format(
-                "INSERT INTO \"message\" VALUES (%s,%s,%s,%s,'%s',%s)",
-                "0", retrieveUserByName(message.sender()).userId(), retrieveUserByName(message.receiver()).userId(),
-                curTime(), message.content(), "0");
-        execute(s);
+        update("INSERT INTO \"message\" VALUES (0,?,?,?,?,0)",
+                getUserId(message.sender()), getUserId(message.receiver()), now(), message.content());
     }
 
     public static void setMessageStatus(int messageId, boolean deleted) {
         try {
-            String s = String.format(
-                    "UPDATE \"message\" SET \"isdelete\"=%s WHERE \"id\"=%s",
-                    deleted ? "1" : "0", messageId);
-            ResultSet rs = execute(s);
-            rs.close();
+            update("UPDATE \"message\" SET \"isdelete\"=? WHERE \"id\"=?",
+                    deleted, messageId);
+            messageCache.invalidate(messageId);
         } catch (SQLException ignored) {
         }
     }
 
     public static Message retrieveMessageById(int message_id)
             throws SQLException {
-        String s = String.format(
-                "SELECT * FROM \"message\" WHERE \"id\"=%s",
-                message_id);
-        ResultSet rs = execute(s);
-        rs.next();
-        Message message = new Message(
-                rs.getInt(1),
-                retrieveUserById(rs.getInt(2)).userName(),
-                retrieveUserById(rs.getInt(3)).userName(),
-                rs.getString(5),
-                rs.getBoolean(6),
-                rs.getString(4)
-        );
-        rs.close();
+        Message message = messageCache.get(message_id, DBController::loadMessage);
+        if (message == null)
+            throw new SQLException("Message (mid=" + message_id + ") does not exist");
         return message;
     }
 
+    private static Message loadMessage(int message_id)
+            throws SQLException {
+        return query("SELECT m.*, f.\"username\", t.\"username\" FROM \"message\" m " +
+                "JOIN \"user\" f ON f.\"id\"=m.\"from_user_id\" " +
+                "JOIN \"user\" t ON t.\"id\"=m.\"to_user_id\" WHERE m.\"id\"=?", rs -> {
+            if (!rs.next())
+                return null;
+            return new Message(
+                    rs.getInt(1),
+                    rs.getString(7),
+                    rs.getString(8),
+                    rs.getString(5),
+                    rs.getBoolean(6),
+                    rs.getString(4)
+            );
+        }, message_id);
+    }
+
     public static boolean messageNotExist(int message_id) {
-        boolean result;
         try {
-            String s = String.format(
-                    "SELECT * FROM \"message\" WHERE \"id\"=%s",
-                    message_id);
-            ResultSet r = execute(s);
-            result = r.next();
-            r.close();
-            return !result;
+            return !queryExists("SELECT \"id\" FROM \"message\" WHERE \"id\"=?", message_id);
         } catch (SQLException ignored) {
         }
         return true;
     }
 
     private static int addLabel(String labelName) {
-        int result;
+        int result = labels.getId(labelName);
+        if (result != LabelDictionary.NO_LABEL)
+            return result;
         try {
-            String s = String.format(
-                    "SELECT * FROM \"interest\" WHERE \"label_name\"='%s'",
-                    labelName);
-            ResultSet r = execute(s);
-            if (r.next()) {
-                result = r.getInt(1);
-                r.close();
-                return result;
+            String s = "SELECT \"id\" FROM \"interest\" WHERE \"label_name\"=?";
+            ResultHandler<Integer> firstId = r -> r.next() ? r.getInt(1) : LabelDictionary.NO_LABEL;
+            result = query(s, firstId, labelName);
+            if (result == LabelDictionary.NO_LABEL) {
+                update("INSERT INTO \"interest\" VALUES(0,?)", labelName);
+                result = query(s, firstId, labelName);
             }
-            String s2 = String.format(
-                    "INSERT INTO \"interest\" VALUES(%s,'%s')",
-                    "0", labelName);
-            ResultSet r2 = execute(s2);
-            ResultSet r3 = execute(s);
-            r3.next();
-            result = r3.getInt(1);
-            r.close();
-            r2.close();
-            r3.close();
+            if (result != LabelDictionary.NO_LABEL)
+                labels.put(result, labelName);
             return result;
         } catch (SQLException ignored) {
-            return -1;
+            return LabelDictionary.NO_LABEL;
         }
     }
 }
@@ -0,0 +1,246 @@
+package controller;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+
+public final class EntityCache<K, V> implements EntityCacheMXBean {
+    private static final int SEGMENTS = 16;
+    private static final List<EntityCache<?, ?>> caches = new CopyOnWriteArrayList<>();
+
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        V load(K key) throws SQLException;
+    }
+
+    private record Slot<V>(V value, long expiresAt) {
+    }
+
+    private static final class Segment<K, V> {
+        private final LinkedHashMap<K, Slot<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final int capacity;
+        private final LongAdder evictions;
+
+        Segment(int capacity, LongAdder evictions) {
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        Slot<V> get(K key) {
+            return entries.get(key);
+        }
+
+        void put(K key, Slot<V> slot) {
+            entries.put(key, slot);
+            Iterator<Slot<V>> eldest = entries.values().iterator();
+            while (entries.size() > capacity) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+
+        void remove(K key) {
+            entries.remove(key);
+        }
+
+        void clear() {
+            entries.clear();
+        }
+
+        int size() {
+            return entries.size();
+        }
+    }
+
+    private final String name;
+    private final int capacity;
+    private final long ttlNanos;
+    private final Segment<K, V>[] segments;
+    private final AtomicLong version = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public EntityCache(String name, int capacity, long ttlMillis) {
+        this.name = name;
+        this.capacity = Math.max(0, capacity);
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, ttlMillis));
+        int segmentCount = this.capacity >= SEGMENTS * 4 ? SEGMENTS : 1;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++)
+            segments[i] = new Segment<>(this.capacity / segmentCount + (i < this.capacity % segmentCount ? 1 : 0),
+                    evictions);
+        caches.add(this);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                    new ObjectName("novepus:type=EntityCache,name=" + name));
+        } catch (JMException | SecurityException ignored) {
+        }
+    }
+
+    public static String report() {
+        if (caches.isEmpty())
+            return "";
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-10s %8s %8s %10s %10s %7s %9s %9s %11s%n", "CACHE", "SIZE", "CAPACITY",
+                "HITS", "MISSES", "HIT%", "EVICTED", "EXPIRED", "INVALIDATED"));
+        for (EntityCache<?, ?> cache : caches)
+            report.append(String.format("%-10s %8d %8d %10d %10d %6.1f%% %9d %9d %11d%n", cache.name,
+                    cache.getSize(), cache.capacity, cache.getHitCount(), cache.getMissCount(),
+                    cache.getHitRate() * 100, cache.getEvictionCount(), cache.getExpirationCount(),
+                    cache.getInvalidationCount()));
+        return report.toString();
+    }
+
+    public static void resetAll() {
+        for (EntityCache<?, ?> cache : caches) {
+            cache.hits.reset();
+            cache.misses.reset();
+            cache.evictions.reset();
+            cache.expirations.reset();
+            cache.invalidations.reset();
+        }
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        int h = key.hashCode();
+        return segments[((h ^ (h >>> 16)) & 0x7FFFFFFF) % segments.length];
+    }
+
+    public V getIfPresent(K key) {
+        V value = lookup(key);
+        if (value == null)
+            misses.increment();
+        return value;
+    }
+
+    public V get(K key, Loader<K, V> loader)
+            throws SQLException {
+        V value = lookup(key);
+        if (value != null)
+            return value;
+        misses.increment();
+        long stamp = version.get();
+        value = loader.load(key);
+        if (value != null)
+            put(key, value, stamp);
+        return value;
+    }
+
+    private V lookup(K key) {
+        if (capacity == 0)
+            return null;
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Slot<V> slot = segment.get(key);
+            if (slot == null)
+                return null;
+            if (System.nanoTime() - slot.expiresAt() < 0) {
+                hits.increment();
+                return slot.value();
+            }
+            segment.remove(key);
+            expirations.increment();
+            return null;
+        }
+    }
+
+    public long stamp() {
+        return version.get();
+    }
+
+    public void put(K key, V value, long stamp) {
+        if (capacity == 0)
+            return;
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            if (version.get() == stamp)
+                segment.put(key, new Slot<>(value, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    public void invalidate(K key) {
+        version.incrementAndGet();
+        invalidations.increment();
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        version.incrementAndGet();
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public int getSize() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long getExpirationCount() {
+        return expirations.sum();
+    }
+
+    @Override
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+}
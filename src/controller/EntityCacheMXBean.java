@@ -0,0 +1,23 @@
+package controller;
+
+public interface EntityCacheMXBean {
+    String getName();
+
+    int getCapacity();
+
+    int getSize();
+
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRate();
+
+    long getEvictionCount();
+
+    long getExpirationCount();
+
+    long getInvalidationCount();
+
+    void clear();
+}
@@ -0,0 +1,159 @@
+package controller;
+
+import controller.util.LongMinHeap;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+
+public final class FeedEngine {
+    public enum Ranking {
+        RECENT, POPULAR
+    }
+
+    private static final int[] EMPTY = new int[0];
+    private final ConcurrentHashMap<Integer, int[]> postsByLabel = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, int[]> labelsByPost = new ConcurrentHashMap<>();
+
+    public synchronized void rebuild(Map<Integer, int[]> postLabels, Set<Integer> livePosts) {
+        postsByLabel.clear();
+        labelsByPost.clear();
+        HashMap<Integer, int[]> building = new HashMap<>();
+        HashMap<Integer, Integer> sizes = new HashMap<>();
+        for (Map.Entry<Integer, int[]> entry : postLabels.entrySet()) {
+            int[] labels = distinct(entry.getValue());
+            labelsByPost.put(entry.getKey(), labels);
+            if (!livePosts.contains(entry.getKey()))
+                continue;
+            for (int label : labels) {
+                int size = sizes.merge(label, 1, Integer::sum);
+                int[] posts = building.getOrDefault(label, EMPTY);
+                if (size > posts.length)
+                    building.put(label, posts = Arrays.copyOf(posts, Math.max(4, size * 2)));
+                posts[size - 1] = entry.getKey();
+            }
+        }
+        for (Map.Entry<Integer, int[]> entry : building.entrySet()) {
+            int[] posts = Arrays.copyOf(entry.getValue(), sizes.get(entry.getKey()));
+            Arrays.sort(posts);
+            postsByLabel.put(entry.getKey(), posts);
+        }
+    }
+
+    public synchronized void add(int postId, int[] labelIds) {
+        int[] labels = distinct(labelIds);
+        labelsByPost.put(postId, labels);
+        for (int label : labels)
+            postsByLabel.compute(label, (key, posts) -> insert(posts == null ? EMPTY : posts, postId));
+    }
+
+    public synchronized void remove(int postId) {
+        for (int label : labelsByPost.getOrDefault(postId, EMPTY))
+            postsByLabel.computeIfPresent(label, (key, posts) -> delete(posts, postId));
+    }
+
+    public synchronized void restore(int postId) {
+        for (int label : labelsByPost.getOrDefault(postId, EMPTY))
+            postsByLabel.compute(label, (key, posts) -> insert(posts == null ? EMPTY : posts, postId));
+    }
+
+    public int[] topK(int[] labelIds, int k, Ranking ranking, IntUnaryOperator likes) {
+        int[][] lists = new int[labelIds.length][];
+        for (int i = 0; i < labelIds.length; i++)
+            lists[i] = postsByLabel.getOrDefault(labelIds[i], EMPTY);
+        return ranking == Ranking.RECENT ? mergeRecent(lists, k) : mergePopular(lists, k, likes);
+    }
+
+    private static int[] mergeRecent(int[][] lists, int k) {
+        int limit = Math.min(k, total(lists));
+        if (limit <= 0)
+            return EMPTY;
+        int[] result = new int[limit];
+        int[] size = {0};
+        forEachMerged(lists, postId -> {
+            result[size[0]++] = postId;
+            return size[0] < result.length;
+        });
+        return size[0] == result.length ? result : Arrays.copyOf(result, size[0]);
+    }
+
+    private static int[] mergePopular(int[][] lists, int k, IntUnaryOperator likes) {
+        int limit = Math.min(k, total(lists));
+        if (limit <= 0)
+            return EMPTY;
+        LongMinHeap heap = new LongMinHeap(limit);
+        forEachMerged(lists, postId -> {
+            heap.offer((long) likes.applyAsInt(postId) << 32 | (postId & 0xFFFFFFFFL));
+            return true;
+        });
+        long[] entries = heap.drainDescending();
+        int[] result = new int[entries.length];
+        for (int i = 0; i < entries.length; i++)
+            result[i] = (int) entries[i];
+        return result;
+    }
+
+    private static void forEachMerged(int[][] lists, IntPredicate action) {
+        int[] cursors = new int[lists.length];
+        for (int i = 0; i < lists.length; i++)
+            cursors[i] = lists[i].length - 1;
+        while (true) {
+            int best = -1;
+            for (int i = 0; i < lists.length; i++)
+                if (cursors[i] >= 0 && (best < 0 || lists[i][cursors[i]] > lists[best][cursors[best]]))
+                    best = i;
+            if (best < 0)
+                return;
+            int postId = lists[best][cursors[best]];
+            for (int i = 0; i < lists.length; i++)
+                if (cursors[i] >= 0 && lists[i][cursors[i]] == postId)
+                    cursors[i]--;
+            if (!action.test(postId))
+                return;
+        }
+    }
+
+    private static int total(int[][] lists) {
+        long total = 0;
+        for (int[] list : lists)
+            total += list.length;
+        return (int) Math.min(Integer.MAX_VALUE, total);
+    }
+
+    private static int[] distinct(int[] values) {
+        return Arrays.stream(values).distinct().toArray();
+    }
+
+    private static int[] insert(int[] posts, int postId) {
+        int index = Arrays.binarySearch(posts, postId);
+        if (index >= 0)
+            return posts;
+        index = -index - 1;
+        int[] result = new int[posts.length + 1];
+        System.arraycopy(posts, 0, result, 0, index);
+        result[index] = postId;
+        System.arraycopy(posts, index, result, index + 1, posts.length - index);
+        return result;
+    }
+
+    private static int[] delete(int[] posts, int postId) {
+        int index = Arrays.binarySearch(posts, postId);
+        if (index < 0)
+            return posts;
+        if (posts.length == 1)
+            return null;
+        int[] result = new int[posts.length - 1];
+        System.arraycopy(posts, 0, result, 0, index);
+        System.arraycopy(posts, index + 1, result, index, posts.length - index - 1);
+        return result;
+    }
+
+    public int getLabelCount() {
+        return postsByLabel.size();
+    }
+}
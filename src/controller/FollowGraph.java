@@ -0,0 +1,99 @@
+package controller;
+
+import controller.util.IntHashSet;
+
+import java.util.HashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+
+public final class FollowGraph {
+    private static final int[] EMPTY = new int[0];
+    private final HashMap<Integer, IntHashSet> followings = new HashMap<>();
+    private final HashMap<Integer, IntHashSet> followers = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public boolean follow(int userId, int followedId) {
+        lock.writeLock().lock();
+        try {
+            if (!followings.computeIfAbsent(userId, id -> new IntHashSet()).add(followedId))
+                return false;
+            followers.computeIfAbsent(followedId, id -> new IntHashSet()).add(userId);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean unfollow(int userId, int followedId) {
+        lock.writeLock().lock();
+        try {
+            IntHashSet following = followings.get(userId);
+            if (following == null || !following.remove(followedId))
+                return false;
+            if (following.isEmpty())
+                followings.remove(userId);
+            IntHashSet follower = followers.get(followedId);
+            if (follower != null && follower.remove(userId) && follower.isEmpty())
+                followers.remove(followedId);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isFollowing(int userId, int followedId) {
+        lock.readLock().lock();
+        try {
+            IntHashSet following = followings.get(userId);
+            return following != null && following.contains(followedId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getFollowingCount(int userId) {
+        return count(followings, userId);
+    }
+
+    public int getFollowerCount(int userId) {
+        return count(followers, userId);
+    }
+
+    public int[] getFollowings(int userId) {
+        return neighbors(followings, userId);
+    }
+
+    public int[] getFollowers(int userId) {
+        return neighbors(followers, userId);
+    }
+
+    private int count(HashMap<Integer, IntHashSet> adjacency, int userId) {
+        lock.readLock().lock();
+        try {
+            IntHashSet neighbors = adjacency.get(userId);
+            return neighbors == null ? 0 : neighbors.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] neighbors(HashMap<Integer, IntHashSet> adjacency, int userId) {
+        lock.readLock().lock();
+        try {
+            IntHashSet neighbors = adjacency.get(userId);
+            return neighbors == null ? EMPTY : neighbors.toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            followings.clear();
+            followers.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
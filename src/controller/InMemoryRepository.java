@@ -0,0 +1,970 @@
+package controller;
+
+import controller.data.PresenceData;
+import controller.util.IntHashSet;
+import controller.util.IntObjectHashMap;
+import model.Comment;
+import model.Credentials;
+import model.Message;
+import model.Post;
+import model.PostSummary;
+import model.User;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+
+public final class InMemoryRepository implements NovepusRepository {
+    private static final int SNAPSHOT_MAGIC = 0x4E565053;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int[] EMPTY = new int[0];
+
+    private static final class UserRecord {
+        final int id;
+        final String name;
+        final long regDate;
+        final IntHashSet interests = new IntHashSet();
+        String password;
+        String email;
+        boolean online;
+        long exitDate;
+
+        UserRecord(int id, String name, String password, String email, long regDate) {
+            this.id = id;
+            this.name = name;
+            this.password = password;
+            this.email = email;
+            this.regDate = regDate;
+            this.exitDate = regDate;
+        }
+    }
+
+    private record PostRecord(int id, int authorId, long date, String title, String content,
+                              boolean deleted, int[] labels) {
+    }
+
+    private record CommentRecord(int id, int postId, int authorId, long date, String content,
+                                 boolean deleted) {
+    }
+
+    private record MessageRecord(int id, int senderId, int receiverId, long date, String content,
+                                 boolean deleted) {
+    }
+
+    @FunctionalInterface
+    private interface Action<T> {
+        T run() throws SQLException;
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IntObjectHashMap<UserRecord> users = new IntObjectHashMap<>();
+    private final HashMap<String, UserRecord> usersByName = new HashMap<>();
+    private final IntObjectHashMap<PostRecord> posts = new IntObjectHashMap<>();
+    private final IntObjectHashMap<CommentRecord> comments = new IntObjectHashMap<>();
+    private final IntObjectHashMap<MessageRecord> messages = new IntObjectHashMap<>();
+    private final IntObjectHashMap<IntHashSet> postsByAuthor = new IntObjectHashMap<>();
+    private final IntObjectHashMap<IntHashSet> commentsByPost = new IntObjectHashMap<>();
+    private final IntObjectHashMap<IntHashSet> messagesByReceiver = new IntObjectHashMap<>();
+    private final IntObjectHashMap<IntHashSet> messagesBySender = new IntObjectHashMap<>();
+    private final LabelDictionary labels = new LabelDictionary();
+    private final LikeCounter likes = new LikeCounter();
+    private final FeedEngine feed = new FeedEngine();
+    private final FollowGraph follows = new FollowGraph();
+    private final SearchIndex search = new SearchIndex();
+    private final PresenceTracker presence =
+            new PresenceTracker(TimeUnit.SECONDS.toMillis(PresenceData.TIMEOUT_SECONDS.getData()));
+    private final Path snapshotFile;
+    private int[] postOrder = new int[16];
+    private int postCount;
+    private int userSequence;
+    private int postSequence;
+    private int commentSequence;
+    private int messageSequence;
+    private int labelSequence;
+
+    public InMemoryRepository() {
+        this.snapshotFile = null;
+    }
+
+    public InMemoryRepository(Path snapshotFile)
+            throws IOException {
+        this.snapshotFile = snapshotFile;
+        if (Files.exists(snapshotFile))
+            loadSnapshot();
+    }
+
+    public static InMemoryRepository open(String snapshotFile)
+            throws IOException {
+        return snapshotFile == null || snapshotFile.isBlank()
+                ? new InMemoryRepository() : new InMemoryRepository(Path.of(snapshotFile));
+    }
+
+    private <T> T read(Action<T> action)
+            throws SQLException {
+        lock.readLock().lock();
+        try {
+            return action.run();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <T> T write(Action<T> action)
+            throws SQLException {
+        lock.writeLock().lock();
+        try {
+            return action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> T readQuietly(Action<T> action, T fallback) {
+        try {
+            return read(action);
+        } catch (SQLException ignored) {
+            return fallback;
+        }
+    }
+
+    private void writeQuietly(Action<Void> action) {
+        try {
+            write(action);
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private static String date(long millis) {
+        return new Timestamp(millis).toString();
+    }
+
+    private static ArrayList<Integer> sorted(int[] ids) {
+        Arrays.sort(ids);
+        ArrayList<Integer> list = new ArrayList<>(ids.length);
+        for (int id : ids)
+            list.add(id);
+        return list;
+    }
+
+    private static int[] idsOf(IntObjectHashMap<IntHashSet> index, int key) {
+        IntHashSet ids = index.get(key);
+        return ids == null ? EMPTY : ids.toArray();
+    }
+
+    private UserRecord user(String userName)
+            throws SQLException {
+        UserRecord user = usersByName.get(userName);
+        if (user == null)
+            throw new SQLException("User '" + userName + "' does not exist");
+        return user;
+    }
+
+    private String userName(int userId) {
+        UserRecord user = users.get(userId);
+        return user == null ? null : user.name;
+    }
+
+    private User toUser(UserRecord record) {
+        return new User(
+                record.id,
+                record.name,
+                record.password,
+                record.email,
+                record.online,
+                date(record.regDate),
+                date(record.exitDate),
+                sorted(record.interests.toArray()),
+                sorted(idsOf(postsByAuthor, record.id)),
+                sorted(follows.getFollowings(record.id)),
+                sorted(follows.getFollowers(record.id)));
+    }
+
+    private Post toPost(PostRecord record) {
+        ArrayList<String> labelNames = new ArrayList<>(record.labels().length);
+        for (int labelId : record.labels())
+            labelNames.add(labels.getName(labelId));
+        return new Post(record.id(), record.title(), userName(record.authorId()), record.content(),
+                record.deleted(), date(record.date()), labelNames);
+    }
+
+    private PostSummary toSummary(PostRecord record) {
+        int commentCount = 0;
+        for (int commentId : idsOf(commentsByPost, record.id()))
+            if (!comments.get(commentId).deleted())
+                commentCount++;
+        return new PostSummary(record.id(), record.title(), userName(record.authorId()),
+                record.content() == null ? 0 : record.content().length(), date(record.date()),
+                likes.getLikes(record.id()), commentCount);
+    }
+
+    private Comment toComment(CommentRecord record) {
+        return new Comment(record.id(), record.postId(), userName(record.authorId()), record.content(),
+                record.deleted(), date(record.date()));
+    }
+
+    private Message toMessage(MessageRecord record) {
+        return new Message(record.id(), userName(record.senderId()), userName(record.receiverId()),
+                record.content(), record.deleted(), date(record.date()));
+    }
+
+    private int addLabel(String labelName) {
+        synchronized (labels) {
+            int labelId = labels.getId(labelName);
+            if (labelId == LabelDictionary.NO_LABEL)
+                labels.put(labelId = ++labelSequence, labelName);
+            return labelId;
+        }
+    }
+
+    private void putPost(PostRecord record) {
+        PostRecord old = posts.put(record.id(), record);
+        if (old != null)
+            return;
+        postsByAuthor.computeIfAbsent(record.authorId(), id -> new IntHashSet()).add(record.id());
+        if (postCount == postOrder.length)
+            postOrder = Arrays.copyOf(postOrder, postCount * 2);
+        postOrder[postCount++] = record.id();
+    }
+
+    private void putComment(CommentRecord record) {
+        comments.put(record.id(), record);
+        commentsByPost.computeIfAbsent(record.postId(), id -> new IntHashSet()).add(record.id());
+    }
+
+    private void putMessage(MessageRecord record) {
+        messages.put(record.id(), record);
+        messagesByReceiver.computeIfAbsent(record.receiverId(), id -> new IntHashSet()).add(record.id());
+        messagesBySender.computeIfAbsent(record.senderId(), id -> new IntHashSet()).add(record.id());
+    }
+
+    @Override
+    public void createUser(User user)
+            throws SQLException {
+        write(() -> {
+            if (usersByName.containsKey(user.userName()))
+                throw new SQLException("User '" + user.userName() + "' already exists");
+            UserRecord record = new UserRecord(++userSequence, user.userName(), user.userPassword(),
+                    user.userEmail(), System.currentTimeMillis());
+            users.put(record.id, record);
+            usersByName.put(record.name, record);
+            return null;
+        });
+    }
+
+    @Override
+    public void setUserStatus(String userName, boolean online)
+            throws SQLException {
+        if (online)
+            presence.login(userName);
+        else
+            presence.logout(userName);
+        applyPresence();
+    }
+
+    @Override
+    public void userHeartbeat(String userName) {
+        presence.heartbeat(userName);
+        applyPresence();
+    }
+
+    private void applyPresence() {
+        if (presence.expireIfDue() == 0 && !presence.hasPending())
+            return;
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<String, Boolean> change : presence.drainPending(Integer.MAX_VALUE)) {
+                UserRecord user = usersByName.get(change.getKey());
+                if (user == null || user.online == change.getValue())
+                    continue;
+                user.online = change.getValue();
+                if (!user.online)
+                    user.exitDate = System.currentTimeMillis();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void setUserPassword(String userName, String newPassword)
+            throws SQLException {
+        write(() -> {
+            UserRecord user = usersByName.get(userName);
+            if (user != null)
+                user.password = newPassword;
+            return null;
+        });
+    }
+
+    @Override
+    public void setUserEmail(String userName, String newEmail)
+            throws SQLException {
+        write(() -> {
+            UserRecord user = usersByName.get(userName);
+            if (user != null)
+                user.email = newEmail;
+            return null;
+        });
+    }
+
+    @Override
+    public User retrieveUserById(int userId)
+            throws SQLException {
+        return read(() -> {
+            UserRecord user = users.get(userId);
+            if (user == null)
+                throw new SQLException("User (uid=" + userId + ") does not exist");
+            return toUser(user);
+        });
+    }
+
+    @Override
+    public User retrieveUserByName(String userName)
+            throws SQLException {
+        return read(() -> toUser(user(userName)));
+    }
+
+    @Override
+    public ArrayList<User> retrieveUsersByIds(Collection<Integer> userIds)
+            throws SQLException {
+        return read(() -> {
+            ArrayList<User> result = new ArrayList<>(userIds.size());
+            for (int userId : userIds) {
+                UserRecord user = users.get(userId);
+                if (user != null)
+                    result.add(toUser(user));
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public boolean userExist(String username)
+            throws SQLException {
+        return read(() -> usersByName.containsKey(username));
+    }
+
+    @Override
+    public Credentials retrieveCredentials(String userName)
+            throws SQLException {
+        return read(() -> {
+            UserRecord user = usersByName.get(userName);
+            return user == null ? null : new Credentials(user.id, user.name, user.password);
+        });
+    }
+
+    @Override
+    public int getUserId(String userName)
+            throws SQLException {
+        return read(() -> {
+            UserRecord user = usersByName.get(userName);
+            return user == null ? 0 : user.id;
+        });
+    }
+
+    @Override
+    public ArrayList<String> getUserInterest(String userName)
+            throws SQLException {
+        return read(() -> getLabelsByIds(sorted(user(userName).interests.toArray())));
+    }
+
+    @Override
+    public void addUserInterest(String userName, String labelName) {
+        writeQuietly(() -> {
+            user(userName).interests.add(addLabel(labelName));
+            return null;
+        });
+    }
+
+    @Override
+    public void userFollow(String userName, String followedName) {
+        writeQuietly(() -> {
+            follows.follow(user(userName).id, user(followedName).id);
+            return null;
+        });
+    }
+
+    @Override
+    public void userUnfollow(String userName, String followedName) {
+        writeQuietly(() -> {
+            follows.unfollow(user(userName).id, user(followedName).id);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean isFollowing(int userId, int followedId) {
+        return follows.isFollowing(userId, followedId);
+    }
+
+    @Override
+    public int getFollowingCount(int userId) {
+        return follows.getFollowingCount(userId);
+    }
+
+    @Override
+    public int getFollowerCount(int userId) {
+        return follows.getFollowerCount(userId);
+    }
+
+    @Override
+    public ArrayList<Integer> getFollowingIds(int userId) {
+        return sorted(follows.getFollowings(userId));
+    }
+
+    @Override
+    public ArrayList<Integer> getFollowerIds(int userId) {
+        return sorted(follows.getFollowers(userId));
+    }
+
+    @Override
+    public void userLikePost(String userName, int postId) {
+        readQuietly(() -> {
+            if (posts.containsKey(postId))
+                likes.load(postId, user(userName).id);
+            return null;
+        }, null);
+    }
+
+    @Override
+    public ArrayList<Integer> getUserInterestPost(String userName) {
+        return getInterestFeed(userName, Integer.MAX_VALUE, FeedEngine.Ranking.RECENT);
+    }
+
+    @Override
+    public ArrayList<Integer> getInterestFeed(String userName, int k, FeedEngine.Ranking ranking) {
+        int[] interestIds = readQuietly(() -> user(userName).interests.toArray(), EMPTY);
+        ArrayList<Integer> postIdList = new ArrayList<>();
+        for (int postId : feed.topK(interestIds, k, ranking, likes::getLikes))
+            postIdList.add(postId);
+        return postIdList;
+    }
+
+    @Override
+    public Stream<Integer> streamUserInbox(String userName) {
+        return readQuietly(() -> {
+            ArrayList<Integer> inbox = new ArrayList<>();
+            for (int messageId : sorted(idsOf(messagesByReceiver, user(userName).id)))
+                if (!messages.get(messageId).deleted())
+                    inbox.add(messageId);
+            return inbox;
+        }, new ArrayList<Integer>()).stream();
+    }
+
+    @Override
+    public int getUserInboxCount(String userName) {
+        return readQuietly(() -> {
+            int count = 0;
+            for (int messageId : idsOf(messagesByReceiver, user(userName).id))
+                if (!messages.get(messageId).deleted())
+                    count++;
+            return count;
+        }, 0);
+    }
+
+    @Override
+    public ArrayList<Integer> getUserSent(String userName) {
+        return readQuietly(() -> sorted(idsOf(messagesBySender, user(userName).id)), new ArrayList<>());
+    }
+
+    @Override
+    public ArrayList<Message> getMailbox(String userName, int afterMessageId)
+            throws SQLException {
+        return read(() -> {
+            UserRecord user = usersByName.get(userName);
+            if (user == null)
+                return new ArrayList<>();
+            IntHashSet ids = new IntHashSet();
+            for (int messageId : idsOf(messagesByReceiver, user.id))
+                ids.add(messageId);
+            for (int messageId : idsOf(messagesBySender, user.id))
+                ids.add(messageId);
+            ArrayList<Message> mailbox = new ArrayList<>();
+            for (int messageId : sorted(ids.toArray())) {
+                MessageRecord message = messages.get(messageId);
+                if (messageId > afterMessageId && !message.deleted())
+                    mailbox.add(toMessage(message));
+            }
+            return mailbox;
+        });
+    }
+
+    @Override
+    public ArrayList<Integer> getMailboxIds(String userName, int upToMessageId)
+            throws SQLException {
+        return read(() -> {
+            UserRecord user = usersByName.get(userName);
+            ArrayList<Integer> ids = new ArrayList<>();
+            if (user == null)
+                return ids;
+            for (int messageId : idsOf(messagesByReceiver, user.id))
+                if (messageId <= upToMessageId && !messages.get(messageId).deleted())
+                    ids.add(messageId);
+            for (int messageId : idsOf(messagesBySender, user.id))
+                if (messageId <= upToMessageId && !messages.get(messageId).deleted())
+                    ids.add(messageId);
+            return ids;
+        });
+    }
+
+    @Override
+    public int getOnlineUserNum() {
+        applyPresence();
+        return presence.getOnlineCount();
+    }
+
+    @Override
+    public Stream<Integer> streamAllUserIds()
+            throws SQLException {
+        return read(() -> {
+            int[] ids = new int[users.size()];
+            int[] i = {0};
+            users.forEachValue(user -> ids[i[0]++] = user.id);
+            return sorted(ids);
+        }).stream();
+    }
+
+    @Override
+    public Stream<Integer> streamUserIds(int afterUserId, int limit)
+            throws SQLException {
+        return streamAllUserIds().filter(userId -> userId > afterUserId).limit(Math.max(0, limit));
+    }
+
+    @Override
+    public void createPost(Post post)
+            throws SQLException {
+        write(() -> {
+            UserRecord author = user(post.postAuthor());
+            LinkedHashSet<Integer> labelIds = new LinkedHashSet<>();
+            for (String label : post.labelNameList())
+                labelIds.add(addLabel(label));
+            int[] labelArray = labelIds.stream().mapToInt(Integer::intValue).toArray();
+            PostRecord record = new PostRecord(++postSequence, author.id, System.currentTimeMillis(),
+                    post.postTitle(), post.content(), false, labelArray);
+            putPost(record);
+            feed.add(record.id(), labelArray);
+            search.add(record.id(), record.title(), SearchIndex.TITLE_WEIGHT);
+            search.add(record.id(), record.content(), SearchIndex.TEXT_WEIGHT);
+            return null;
+        });
+    }
+
+    @Override
+    public void setPostStatus(int postId, boolean deleted)
+            throws SQLException {
+        write(() -> {
+            PostRecord post = posts.get(postId);
+            if (post == null)
+                return null;
+            posts.put(postId, new PostRecord(post.id(), post.authorId(), post.date(), post.title(),
+                    post.content(), deleted, post.labels()));
+            if (deleted)
+                feed.remove(postId);
+            else
+                feed.restore(postId);
+            search.setDeleted(postId, deleted);
+            return null;
+        });
+    }
+
+    @Override
+    public ArrayList<Integer> searchPosts(String query, int k) {
+        ArrayList<Integer> postIdList = new ArrayList<>();
+        for (int postId : search.search(query, k))
+            postIdList.add(postId);
+        return postIdList;
+    }
+
+    @Override
+    public Post retrievePostById(int postId)
+            throws SQLException {
+        return read(() -> {
+            PostRecord post = posts.get(postId);
+            if (post == null)
+                throw new SQLException("Post (pid=" + postId + ") does not exist");
+            return toPost(post);
+        });
+    }
+
+    @Override
+    public ArrayList<PostSummary> getPostSummaryPage(int beforePostId, int pageSize)
+            throws SQLException {
+        return read(() -> {
+            ArrayList<PostSummary> page = new ArrayList<>(pageSize);
+            int index = Arrays.binarySearch(postOrder, 0, postCount, beforePostId);
+            for (int i = (index >= 0 ? index : -index - 1) - 1; i >= 0 && page.size() < pageSize; i--) {
+                PostRecord post = posts.get(postOrder[i]);
+                if (!post.deleted())
+                    page.add(toSummary(post));
+            }
+            return page;
+        });
+    }
+
+    @Override
+    public ArrayList<PostSummary> getPostSummariesByIds(Collection<Integer> postIds)
+            throws SQLException {
+        return read(() -> {
+            ArrayList<PostSummary> summaries = new ArrayList<>(postIds.size());
+            for (int postId : new LinkedHashSet<>(postIds)) {
+                PostRecord post = posts.get(postId);
+                if (post != null && !post.deleted())
+                    summaries.add(toSummary(post));
+            }
+            return summaries;
+        });
+    }
+
+    @Override
+    public boolean postNotExist(int postId)
+            throws SQLException {
+        return read(() -> !posts.containsKey(postId));
+    }
+
+    @Override
+    public Stream<Integer> streamAllPostIds() {
+        return readQuietly(() -> sorted(Arrays.copyOf(postOrder, postCount)), new ArrayList<Integer>()).stream();
+    }
+
+    @Override
+    public int getPostLikes(int postId) {
+        return likes.getLikes(postId);
+    }
+
+    @Override
+    public ArrayList<String> getPostLabel(int postId) {
+        return readQuietly(() -> {
+            PostRecord post = posts.get(postId);
+            return post == null ? new ArrayList<>() : toPost(post).labelNameList();
+        }, null);
+    }
+
+    @Override
+    public void createComment(Comment comment) {
+        writeQuietly(() -> {
+            UserRecord author = user(comment.creator());
+            if (!posts.containsKey(comment.postId()))
+                return null;
+            putComment(new CommentRecord(++commentSequence, comment.postId(), author.id,
+                    System.currentTimeMillis(), comment.content(), false));
+            search.add(comment.postId(), comment.content(), SearchIndex.TEXT_WEIGHT);
+            return null;
+        });
+    }
+
+    @Override
+    public ArrayList<Comment> getPostComments(int postId) {
+        return readQuietly(() -> {
+            ArrayList<Comment> result = new ArrayList<>();
+            for (int commentId : sorted(idsOf(commentsByPost, postId))) {
+                CommentRecord comment = comments.get(commentId);
+                if (!comment.deleted())
+                    result.add(toComment(comment));
+            }
+            return result;
+        }, new ArrayList<>());
+    }
+
+    @Override
+    public Stream<Integer> streamPostCommentIds(int postId) {
+        return readQuietly(() -> sorted(idsOf(commentsByPost, postId)), new ArrayList<Integer>()).stream();
+    }
+
+    @Override
+    public String getLabelById(int labelId) {
+        return labels.getName(labelId);
+    }
+
+    @Override
+    public ArrayList<String> getLabelsByIds(Collection<Integer> labelIds) {
+        ArrayList<String> labelNames = new ArrayList<>(labelIds.size());
+        for (int labelId : labelIds)
+            labelNames.add(labels.getName(labelId));
+        return labelNames;
+    }
+
+    @Override
+    public Comment retrieveCommentById(int commentId) {
+        return readQuietly(() -> {
+            CommentRecord comment = comments.get(commentId);
+            return comment == null ? null : toComment(comment);
+        }, null);
+    }
+
+    @Override
+    public void createMessage(Message message)
+            throws SQLException {
+        write(() -> {
+            putMessage(new MessageRecord(++messageSequence, user(message.sender()).id,
+                    user(message.receiver()).id, System.currentTimeMillis(), message.content(), false));
+            return null;
+        });
+    }
+
+    @Override
+    public void setMessageStatus(int messageId, boolean deleted) {
+        writeQuietly(() -> {
+            MessageRecord message = messages.get(messageId);
+            if (message != null)
+                messages.put(messageId, new MessageRecord(message.id(), message.senderId(),
+                        message.receiverId(), message.date(), message.content(), deleted));
+            return null;
+        });
+    }
+
+    @Override
+    public Message retrieveMessageById(int messageId)
+            throws SQLException {
+        return read(() -> {
+            MessageRecord message = messages.get(messageId);
+            if (message == null)
+                throw new SQLException("Message (mid=" + messageId + ") does not exist");
+            return toMessage(message);
+        });
+    }
+
+    @Override
+    public boolean messageNotExist(int messageId) {
+        return readQuietly(() -> !messages.containsKey(messageId), true);
+    }
+
+    @Override
+    public void close() {
+        if (snapshotFile == null)
+            return;
+        try {
+            saveSnapshot();
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    public void saveSnapshot()
+            throws IOException {
+        if (snapshotFile == null)
+            throw new IOException("No snapshot file configured");
+        Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        lock.readLock().lock();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(temporary), 1 << 16)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(userSequence);
+            out.writeInt(postSequence);
+            out.writeInt(commentSequence);
+            out.writeInt(messageSequence);
+            out.writeInt(labelSequence);
+            out.writeInt(labels.size());
+            labels.forEach((labelId, labelName) -> writeLabel(out, labelId, labelName));
+            out.writeInt(users.size());
+            users.forEachValue(user -> writeUser(out, user));
+            out.writeInt(postCount);
+            for (int i = 0; i < postCount; i++)
+                writePost(out, posts.get(postOrder[i]));
+            out.writeInt(comments.size());
+            comments.forEachValue(comment -> writeComment(out, comment));
+            out.writeInt(messages.size());
+            messages.forEachValue(message -> writeMessage(out, message));
+            ArrayList<long[]> followPairs = new ArrayList<>();
+            users.forEachValue(user -> {
+                for (int followedId : follows.getFollowings(user.id))
+                    followPairs.add(new long[]{user.id, followedId});
+            });
+            out.writeInt(followPairs.size());
+            for (long[] pair : followPairs) {
+                out.writeInt((int) pair[0]);
+                out.writeInt((int) pair[1]);
+            }
+            ArrayList<Long> likePairs = new ArrayList<>();
+            likes.forEach(likePairs::add);
+            out.writeInt(likePairs.size());
+            for (long key : likePairs)
+                out.writeLong(key);
+        } catch (UncheckedIOException uncheckedIOException) {
+            throw uncheckedIOException.getCause();
+        } finally {
+            lock.readLock().unlock();
+        }
+        Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void loadSnapshot()
+            throws IOException {
+        lock.writeLock().lock();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(snapshotFile), 1 << 16)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION)
+                throw new IOException("Unsupported snapshot " + snapshotFile);
+            userSequence = in.readInt();
+            postSequence = in.readInt();
+            commentSequence = in.readInt();
+            messageSequence = in.readInt();
+            labelSequence = in.readInt();
+            for (int i = in.readInt(); i > 0; i--)
+                labels.put(in.readInt(), readString(in));
+            for (int i = in.readInt(); i > 0; i--) {
+                UserRecord user = new UserRecord(in.readInt(), readString(in), readString(in), readString(in),
+                        in.readLong());
+                user.exitDate = in.readLong();
+                in.readBoolean();
+                for (int j = in.readInt(); j > 0; j--)
+                    user.interests.add(in.readInt());
+                users.put(user.id, user);
+                usersByName.put(user.name, user);
+            }
+            HashMap<Integer, int[]> postLabels = new HashMap<>();
+            HashSet<Integer> livePosts = new HashSet<>();
+            try {
+                for (int i = in.readInt(); i > 0; i--) {
+                    int id = in.readInt();
+                    int authorId = in.readInt();
+                    long date = in.readLong();
+                    String title = readString(in);
+                    String content = readString(in);
+                    boolean deleted = in.readBoolean();
+                    int[] labelIds = new int[in.readInt()];
+                    for (int j = 0; j < labelIds.length; j++)
+                        labelIds[j] = in.readInt();
+                    PostRecord post = new PostRecord(id, authorId, date, title, content, deleted, labelIds);
+                    putPost(post);
+                    postLabels.put(id, labelIds);
+                    if (!deleted)
+                        livePosts.add(id);
+                    search.add(id, title, SearchIndex.TITLE_WEIGHT);
+                    search.add(id, content, SearchIndex.TEXT_WEIGHT);
+                    search.setDeleted(id, deleted);
+                }
+                for (int i = in.readInt(); i > 0; i--) {
+                    CommentRecord comment = new CommentRecord(in.readInt(), in.readInt(), in.readInt(),
+                            in.readLong(), readString(in), in.readBoolean());
+                    putComment(comment);
+                    if (!comment.deleted())
+                        search.add(comment.postId(), comment.content(), SearchIndex.TEXT_WEIGHT);
+                }
+            } finally {
+                search.compact();
+            }
+            feed.rebuild(postLabels, livePosts);
+            for (int i = in.readInt(); i > 0; i--)
+                putMessage(new MessageRecord(in.readInt(), in.readInt(), in.readInt(),
+                        in.readLong(), readString(in), in.readBoolean()));
+            for (int i = in.readInt(); i > 0; i--)
+                follows.follow(in.readInt(), in.readInt());
+            for (int i = in.readInt(); i > 0; i--) {
+                long key = in.readLong();
+                likes.load(LikeCounter.postIdOf(key), LikeCounter.userIdOf(key));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void writeLabel(DataOutputStream out, int labelId, String labelName) {
+        try {
+            out.writeInt(labelId);
+            writeString(out, labelName);
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    private static void writeUser(DataOutputStream out, UserRecord user) {
+        try {
+            out.writeInt(user.id);
+            writeString(out, user.name);
+            writeString(out, user.password);
+            writeString(out, user.email);
+            out.writeLong(user.regDate);
+            out.writeLong(user.exitDate);
+            out.writeBoolean(user.online);
+            int[] interests = user.interests.toArray();
+            out.writeInt(interests.length);
+            for (int interest : interests)
+                out.writeInt(interest);
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    private static void writePost(DataOutputStream out, PostRecord post)
+            throws IOException {
+        out.writeInt(post.id());
+        out.writeInt(post.authorId());
+        out.writeLong(post.date());
+        writeString(out, post.title());
+        writeString(out, post.content());
+        out.writeBoolean(post.deleted());
+        out.writeInt(post.labels().length);
+        for (int label : post.labels())
+            out.writeInt(label);
+    }
+
+    private static void writeComment(DataOutputStream out, CommentRecord comment) {
+        try {
+            out.writeInt(comment.id());
+            out.writeInt(comment.postId());
+            out.writeInt(comment.authorId());
+            out.writeLong(comment.date());
+            writeString(out, comment.content());
+            out.writeBoolean(comment.deleted());
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    private static void writeMessage(DataOutputStream out, MessageRecord message) {
+        try {
+            out.writeInt(message.id());
+            out.writeInt(message.senderId());
+            out.writeInt(message.receiverId());
+            out.writeLong(message.date());
+            writeString(out, message.content());
+            out.writeBoolean(message.deleted());
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value)
+            throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in)
+            throws IOException {
+        int length = in.readInt();
+        if (length < 0)
+            return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
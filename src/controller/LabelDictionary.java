@@ -0,0 +1,38 @@
+package controller;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+
+public final class LabelDictionary {
+    public static final int NO_LABEL = -1;
+    private final ConcurrentHashMap<Integer, String> names = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+    public void put(int labelId, String labelName) {
+        String interned = labelName.intern();
+        names.put(labelId, interned);
+        ids.put(interned, labelId);
+    }
+
+    public String getName(int labelId) {
+        return names.get(labelId);
+    }
+
+    public int getId(String labelName) {
+        return ids.getOrDefault(labelName, NO_LABEL);
+    }
+
+    public void forEach(BiConsumer<Integer, String> action) {
+        names.forEach(action);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public void clear() {
+        names.clear();
+        ids.clear();
+    }
+}
@@ -0,0 +1,92 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+
+public final class LikeCounter {
+    private final ConcurrentHashMap<Integer, LongAdder> counts = new ConcurrentHashMap<>();
+    private final Set<Long> likes = ConcurrentHashMap.newKeySet();
+    private final ConcurrentLinkedQueue<Long> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingSize = new AtomicInteger();
+
+    public static long key(int postId, int userId) {
+        return (long) postId << 32 | (userId & 0xFFFFFFFFL);
+    }
+
+    public static int postIdOf(long key) {
+        return (int) (key >>> 32);
+    }
+
+    public static int userIdOf(long key) {
+        return (int) key;
+    }
+
+    public boolean like(int postId, int userId) {
+        long key = key(postId, userId);
+        if (!likes.add(key))
+            return false;
+        counts.computeIfAbsent(postId, id -> new LongAdder()).increment();
+        pending.offer(key);
+        pendingSize.incrementAndGet();
+        return true;
+    }
+
+    public boolean rollback(long key) {
+        if (!likes.remove(key))
+            return false;
+        LongAdder count = counts.get(postIdOf(key));
+        if (count != null)
+            count.decrement();
+        return true;
+    }
+
+    public void load(int postId, int userId) {
+        if (likes.add(key(postId, userId)))
+            counts.computeIfAbsent(postId, id -> new LongAdder()).increment();
+    }
+
+    public boolean hasLiked(int postId, int userId) {
+        return likes.contains(key(postId, userId));
+    }
+
+    public int getLikes(int postId) {
+        LongAdder count = counts.get(postId);
+        return count == null ? 0 : count.intValue();
+    }
+
+    public void forEach(LongConsumer action) {
+        for (long key : likes)
+            action.accept(key);
+    }
+
+    public ArrayList<Long> drainPending(int max) {
+        ArrayList<Long> drained = new ArrayList<>(Math.min(max, pendingSize.get()));
+        Long key;
+        while (drained.size() < max && (key = pending.poll()) != null) {
+            pendingSize.decrementAndGet();
+            drained.add(key);
+        }
+        return drained;
+    }
+
+    public void requeue(Collection<Long> keys) {
+        pending.addAll(keys);
+        pendingSize.addAndGet(keys.size());
+    }
+
+    public int getPendingCount() {
+        return pendingSize.get();
+    }
+
+    public void clear() {
+        counts.clear();
+        likes.clear();
+    }
+}
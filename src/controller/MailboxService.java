@@ -0,0 +1,95 @@
+package controller;
+
+import model.Message;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.TreeMap;
+
+
+public final class MailboxService {
+    private final NovepusRepository repository;
+    private final String userName;
+    private final TreeMap<Integer, Message> inbox = new TreeMap<>();
+    private final TreeMap<Integer, Message> sent = new TreeMap<>();
+    private int lastSeenId;
+
+    public MailboxService(NovepusRepository repository, String userName) {
+        this.repository = repository;
+        this.userName = userName;
+    }
+
+    public int refresh()
+            throws SQLException {
+        if (lastSeenId > 0) {
+            HashSet<Integer> live = new HashSet<>(repository.getMailboxIds(userName, lastSeenId));
+            inbox.keySet().retainAll(live);
+            sent.keySet().retainAll(live);
+        }
+        ArrayList<Message> messages = repository.getMailbox(userName, lastSeenId);
+        for (Message message : messages) {
+            if (Objects.equals(message.receiver(), userName))
+                inbox.put(message.messageId(), message);
+            if (Objects.equals(message.sender(), userName))
+                sent.put(message.messageId(), message);
+            lastSeenId = Math.max(lastSeenId, message.messageId());
+        }
+        return messages.size();
+    }
+
+    public int reload()
+            throws SQLException {
+        inbox.clear();
+        sent.clear();
+        lastSeenId = 0;
+        return refresh();
+    }
+
+    public ArrayList<Message> getInboxPage(int page, int pageSize) {
+        return page(inbox, page, pageSize);
+    }
+
+    public ArrayList<Message> getSentPage(int page, int pageSize) {
+        return page(sent, page, pageSize);
+    }
+
+    private static ArrayList<Message> page(TreeMap<Integer, Message> messages, int page, int pageSize) {
+        ArrayList<Message> result = new ArrayList<>(pageSize);
+        Iterator<Message> iterator = messages.descendingMap().values().iterator();
+        for (int skip = page * pageSize; skip > 0 && iterator.hasNext(); skip--)
+            iterator.next();
+        while (result.size() < pageSize && iterator.hasNext())
+            result.add(iterator.next());
+        return result;
+    }
+
+    public int getPageCount(int pageSize) {
+        return Math.max(1, (Math.max(inbox.size(), sent.size()) + pageSize - 1) / pageSize);
+    }
+
+    public int getInboxCount() {
+        return inbox.size();
+    }
+
+    public int getSentCount() {
+        return sent.size();
+    }
+
+    public Message getMessage(int messageId) {
+        Message message = inbox.get(messageId);
+        return message != null ? message : sent.get(messageId);
+    }
+
+    public void delete(int messageId) {
+        repository.setMessageStatus(messageId, true);
+        inbox.remove(messageId);
+        sent.remove(messageId);
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+}
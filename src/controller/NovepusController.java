@@ -1,30 +1,79 @@
 package controller;
 
+import controller.data.MetricsData;
 import controller.data.OracleData;
+import controller.data.StorageData;
+import controller.metrics.InteractionTracker;
+import controller.metrics.QueryStats;
 import model.Comment;
+import model.Credentials;
 import model.Message;
 import model.Post;
+import model.PostSummary;
 import model.User;
-import oracle.jdbc.driver.OracleConnection;
 import oracle.jdbc.driver.OracleDriver;
 import view.NovepusIO;
+import view.PromptListener;
 
+import java.io.IOException;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 public final class NovepusController {
     private static final String GUEST_USER_NAME = "_guest_user_";
+    private static final int POST_PAGE_SIZE = 20;
+    private static final int MAIL_PAGE_SIZE = 20;
+    private static final int FEED_SIZE = 50;
+    private static final int SEARCH_SIZE = 20;
+    private static final int USER_BATCH_SIZE = 200;
     private final NovepusIO io;
-    private OracleConnection connection;
+    private final NovepusRepository repository;
+    private final UnitOfWork unitOfWork;
+    private final AuthService auth;
+    private ConnectionPool connectionPool;
     private String currentUser;
+    private AuthService.Session session;
+    private MailboxService mailbox;
 
     public NovepusController() {
         this.io = new NovepusIO();
-        connectToOracle();
+        NovepusRepository backend;
+        if (StorageData.BACKEND.getData().equalsIgnoreCase("memory"))
+            backend = QueryStats.global().instrument(openInMemory(StorageData.SNAPSHOT_FILE.getData()));
+        else {
+            connectToOracle();
+            backend = QueryStats.global().instrument(new OracleRepository());
+        }
+        this.unitOfWork = new UnitOfWork(backend);
+        this.repository = unitOfWork.repository();
+        this.auth = new AuthService(repository);
+        io.setPromptListener(new SessionListener());
+        setCurrentUser(GUEST_USER_NAME);
+        io.novepusPrintln(this + " Initialized");
+    }
+
+    public NovepusController(NovepusRepository repository) {
+        this(new NovepusIO(), repository);
+    }
+
+    public NovepusController(NovepusIO io, NovepusRepository repository) {
+        this(io, repository, new AuthService(repository));
+    }
+
+    public NovepusController(NovepusIO io, NovepusRepository repository, AuthService auth) {
+        this.io = io;
+        this.unitOfWork = new UnitOfWork(repository);
+        this.repository = unitOfWork.repository();
+        this.auth = auth;
+        io.setPromptListener(new SessionListener());
         setCurrentUser(GUEST_USER_NAME);
         io.novepusPrintln(this + " Initialized");
     }
@@ -55,7 +104,7 @@ public final class NovepusController {
     private void userMenu() throws SQLException {
         String cmd;
         do {
-            io.showUserMenu();
+            io.showUserMenu(repository.getUserInboxCount(currentUser), repository.getOnlineUserNum());
             cmd = io.readLine().strip().toLowerCase();
             switch (cmd) {
                 case "i" -> displayUserDetails();
@@ -64,10 +113,10 @@ public final class NovepusController {
                 case "w" -> worldForum();
                 case "s" -> manageFollows();
                 case "m" -> mailBox();
+                case "stats", "stats reset" -> showQueryStats(cmd.endsWith("reset"));
                 case "q" -> {
                     io.novepusPrintln("Logging out...");
-                    DBController.setUserStatus(currentUser, false);
-                    setCurrentUser(GUEST_USER_NAME);
+                    logout();
                 }
                 default -> io.novepusPrintln("Unrecognized Command " + cmd);
             }
@@ -91,9 +140,9 @@ public final class NovepusController {
     }
 
     private void manageFollows() throws SQLException {
-        User user = DBController.retrieveUserByName(currentUser);
+        int userId = currentUserId();
         io.novepusPrintln(String.format("User '%s' follows %s users and has %d followers!",
-                user.userName(), user.followingsIdList().size(), user.followersIdList().size()));
+                currentUser, repository.getFollowingCount(userId), repository.getFollowerCount(userId)));
         String cmd;
         do {
             io.showFollowMenu();
@@ -115,8 +164,9 @@ public final class NovepusController {
             io.showForumMenu();
             cmd = io.readLine().strip().toLowerCase();
             switch (cmd) {
-                case "v" -> displayAllPosts();
+                case "v" -> displayAllPosts("'n' for next page, otherwise stop");
                 case "r" -> displayInterestPosts();
+                case "f" -> searchPosts();
                 case "s" -> selectPost();
                 case "a" -> displayAllUsers();
                 case "p" -> postGuide();
@@ -127,34 +177,32 @@ public final class NovepusController {
     }
 
     private void mailBox() throws SQLException {
+        MailboxService mailbox = getMailbox();
+        mailbox.refresh();
         String cmd;
+        int page = 0;
         do {
-            ArrayList<Message> inbox = new ArrayList<>();
-            ArrayList<Message> sent = new ArrayList<>();
-            for (int id : DBController.getUserInbox(currentUser)) {
-                Message message = DBController.retrieveMessageById(id);
-                if (!message.deleted())
-                    inbox.add(message);
-            }
-            for (int id : DBController.getUserSent(currentUser)) {
-                Message message = DBController.retrieveMessageById(id);
-                if (!message.deleted())
-                    sent.add(message);
-            }
-            io.novepusPrintln("Displaying User Inbox");
-            io.printMessageList(inbox);
+            io.novepusPrintln(String.format("Displaying User Inbox, page %d/%d (%d messages)",
+                    page + 1, mailbox.getPageCount(MAIL_PAGE_SIZE), mailbox.getInboxCount()));
+            io.printMessageList(mailbox.getInboxPage(page, MAIL_PAGE_SIZE));
             io.novepusPrintln("Display User Inbox Finished!");
-            io.novepusPrintln("Displaying User Sent");
-            io.printMessageList(sent);
+            io.novepusPrintln(String.format("Displaying User Sent, page %d/%d (%d messages)",
+                    page + 1, mailbox.getPageCount(MAIL_PAGE_SIZE), mailbox.getSentCount()));
+            io.printMessageList(mailbox.getSentPage(page, MAIL_PAGE_SIZE));
             io.novepusPrintln("Display User Sent Finished!");
             io.showMailBoxMenu();
             cmd = io.readLine().strip().toLowerCase();
             switch (cmd) {
                 case "p" -> sendMessage();
                 case "d" -> deleteMessage();
+                case "n" -> page = (page + 1) % mailbox.getPageCount(MAIL_PAGE_SIZE);
                 case "q" -> io.novepusPrintln("Going Back");
                 default -> io.novepusPrintln("Unrecognized Command " + cmd);
             }
+            if (!cmd.equals("n") && !cmd.equals("q")) {
+                mailbox.refresh();
+                page = 0;
+            }
         } while (!cmd.equals("q"));
     }
 
@@ -166,18 +214,20 @@ public final class NovepusController {
             receiver = io.readLine();
             if (receiver.equals("~"))
                 return;
-            if (!DBController.userExist(receiver))
+            if (!repository.userExist(receiver))
                 io.novepusPrintln(String.format("User '%s' does not exist!", receiver));
-        } while (!DBController.userExist(receiver));
+        } while (!repository.userExist(receiver));
         io.novepusPrintln("You may input your Message content now");
         content = io.readText();
-        DBController.createMessage(new Message(currentUser, receiver, content));
+        repository.createMessage(new Message(currentUser, receiver, content));
         io.novepusPrintln("Sent!");
     }
 
     private void deleteMessage() throws SQLException {
+        MailboxService mailbox = getMailbox();
         String mids;
         int mid;
+        Message message;
         do {
             io.novepusPrintln("Input the 'mid' to delete ('~' to quit)");
             mids = io.readLine();
@@ -187,20 +237,18 @@ public final class NovepusController {
                 mid = Integer.parseInt(mids);
             } catch (NumberFormatException numberFormatException) {
                 io.novepusPrintln("Invalid pid value!");
-                mid = 0;
+                message = null;
                 continue;
             }
-            if (DBController.messageNotExist(mid) || DBController.retrieveMessageById(mid).deleted()) {
-                io.novepusPrintln(String.format("Message (mid=%s) does not exist! Cannot delete!", mid));
-                continue;
+            message = mailbox.getMessage(mid);
+            if (message == null) {
+                if (repository.messageNotExist(mid) || repository.retrieveMessageById(mid).deleted())
+                    io.novepusPrintln(String.format("Message (mid=%s) does not exist! Cannot delete!", mid));
+                else
+                    io.novepusPrintln(String.format("Message (mid=%s) is not yours! Cannot delete!", mid));
             }
-            if (!DBController.getUserInbox(currentUser).contains(mid) &&
-                    !DBController.getUserSent(currentUser).contains(mid))
-                io.novepusPrintln(String.format("Message (mid=%s) is not yours! Cannot delete!", mid));
-        } while (DBController.messageNotExist(mid) ||
-                (!DBController.getUserInbox(currentUser).contains(mid) &&
-                        !DBController.getUserSent(currentUser).contains(mid)));
-        io.printMessage(DBController.retrieveMessageById(mid));
+        } while (message == null);
+        io.printMessage(message);
         String cmd;
         io.novepusPrintln("Are you sure to delete?");
         io.novepusPrintln("'w' to confirm, otherwise quit");
@@ -209,7 +257,7 @@ public final class NovepusController {
             io.novepusPrintln("Canceled");
             return;
         }
-        DBController.setMessageStatus(mid, true);
+        mailbox.delete(message.messageId());
         io.novepusPrintln(String.format("Successfully delete Message at %s", new Date()));
     }
 
@@ -223,11 +271,11 @@ public final class NovepusController {
             username = io.readLine();
             if (username.equals("~"))
                 return;
-            if (DBController.userExist(username))
+            if (repository.userExist(username))
                 io.novepusPrintln(username + " has been taken!");
             if (username.length() > 15)
                 io.novepusPrintln("Username oversize!");
-        } while (DBController.userExist(username) || username.length() > 15);
+        } while (repository.userExist(username) || username.length() > 15);
         do {
             io.novepusPrintln("Input your Password");
             password = io.readPassword();
@@ -244,30 +292,32 @@ public final class NovepusController {
             if (email.length() > 28)
                 io.novepusPrintln("Email oversize!");
         } while (email.length() > 28);
-        DBController.createUser(new User(username, password, email));
+        repository.createUser(new User(username, password, email));
         io.novepusPrintln(String.format("New User '%s' finished registration at %s",
                 username, new Date()));
     }
 
     private void loginGuide() throws SQLException {
         String username;
-        String password;
+        Credentials credentials;
+        AuthService.Session newSession;
         do {
             do {
                 io.novepusPrintln("Input your Username ('~' to quit)");
                 username = io.readLine();
                 if (username.equals("~"))
                     return;
-                if (!DBController.userExist(username))
+                credentials = auth.lookup(username);
+                if (credentials == null)
                     io.novepusPrintln(String.format("User '%s' does not exist!", username));
-            } while (!DBController.userExist(username));
+            } while (credentials == null);
             io.novepusPrintln("Input Password for " + username);
-            password = io.readPassword();
-            if (!DBController.retrieveUserByName(username).userPassword().equals(password))
+            newSession = auth.authenticate(credentials, io.readPassword());
+            if (newSession == null)
                 io.novepusPrintln("Incorrect Password!");
-        } while (!DBController.retrieveUserByName(username).userPassword().equals(password));
-        setCurrentUser(username);
-        DBController.setUserStatus(currentUser, true);
+        } while (newSession == null);
+        setCurrentUser(newSession.userName());
+        session = newSession;
         io.novepusPrintln("Successfully Log In As " + username);
         io.novepusPrintln("Welcome!");
     }
@@ -295,7 +345,7 @@ public final class NovepusController {
         io.novepusPrintln("'w' to confirm, otherwise quit");
         confirm = io.readLine().strip().toLowerCase();
         if (!confirm.equals("w")) {
-            System.out.println("Leaving");
+            io.novepusPrintln("Leaving");
             return;
         }
         String label;
@@ -308,19 +358,15 @@ public final class NovepusController {
                 io.novepusPrintln(String.format("'%s' added!", label));
             }
         } while (!Objects.equals(label, "~"));
-        DBController.createPost(new Post(title, currentUser, content, labelList));
+        repository.createPost(new Post(title, currentUser, content, labelList));
         io.novepusPrintln(String.format("User '%s' creates a new Post '%s' at %s",
                 currentUser, title, new Date()));
     }
 
     private void displayFollowDetails() throws SQLException {
-        User user = DBController.retrieveUserByName(currentUser);
-        ArrayList<User> followings = new ArrayList<>();
-        ArrayList<User> followers = new ArrayList<>();
-        for (int id : user.followingsIdList())
-            followings.add(DBController.retrieveUserById(id));
-        for (int id : user.followersIdList())
-            followers.add(DBController.retrieveUserById(id));
+        int userId = currentUserId();
+        ArrayList<User> followings = repository.retrieveUsersByIds(repository.getFollowingIds(userId));
+        ArrayList<User> followers = repository.retrieveUsersByIds(repository.getFollowerIds(userId));
         io.novepusPrintln(followings.size() + " followings in total!");
         io.printUserList(followings);
         io.novepusPrintln("Display followings finished!");
@@ -333,28 +379,31 @@ public final class NovepusController {
             userName = io.readLine();
             if (userName.equals("~"))
                 return;
-            if (!DBController.userExist(userName))
+            if (!repository.userExist(userName))
                 io.novepusPrintln(String.format("User '%s' does not exist!", userName));
-        } while (!DBController.userExist(userName));
-        io.printUser(DBController.retrieveUserByName(userName));
+        } while (!repository.userExist(userName));
+        io.printUser(ViewPrefetcher.prefetchUser(repository, userName));
     }
 
     private void addFollowing() throws SQLException {
+        int userId = currentUserId();
         String userName;
+        boolean valid;
         do {
             io.novepusPrintln("Input the username of the user you want to follow ('~' to quit)");
             userName = io.readLine();
             if (userName.equals("~"))
                 return;
-            if (!DBController.userExist(userName))
+            int followedId = repository.getUserId(userName);
+            valid = false;
+            if (followedId == 0)
                 io.novepusPrintln(String.format("User '%s' does not exist!", userName));
-            if (DBController.retrieveUserByName(currentUser).followingsIdList().
-                    contains(DBController.retrieveUserByName(userName).userId()))
+            else if (repository.isFollowing(userId, followedId))
                 io.novepusPrintln(String.format("You have already followed '%s'!", userName));
-        } while (!DBController.userExist(userName) ||
-                DBController.retrieveUserByName(currentUser).followingsIdList().
-                        contains(DBController.retrieveUserByName(userName).userId()));
-        io.printUser(DBController.retrieveUserByName(userName));
+            else
+                valid = true;
+        } while (!valid);
+        io.printUser(ViewPrefetcher.prefetchUser(repository, userName));
         String cmd;
         io.novepusPrintln(String.format("Are you sure to follow User '%s'?", userName));
         io.novepusPrintln("'w' to confirm, otherwise quit");
@@ -363,25 +412,28 @@ public final class NovepusController {
             io.novepusPrintln("Canceled");
             return;
         }
-        DBController.userFollow(currentUser, userName);
+        repository.userFollow(currentUser, userName);
         io.novepusPrintln("Followed");
     }
 
     private void deleteFollowing() throws SQLException {
+        int userId = currentUserId();
         String userName;
+        boolean valid;
         do {
             io.novepusPrintln("Input the username of the user you want to unfollow ('~' to quit)");
             userName = io.readLine();
             if (userName.equals("~"))
                 return;
-            if (!DBController.userExist(userName))
+            int followedId = repository.getUserId(userName);
+            valid = false;
+            if (followedId == 0)
                 io.novepusPrintln(String.format("User '%s' does not exist!", userName));
-            if (!DBController.retrieveUserByName(currentUser).followingsIdList().
-                    contains(DBController.retrieveUserByName(userName).userId()))
+            else if (!repository.isFollowing(userId, followedId))
                 io.novepusPrintln(String.format("You have not followed '%s' yet!", userName));
-        } while (!DBController.userExist(userName) ||
-                !DBController.retrieveUserByName(currentUser).followingsIdList().
-                        contains(DBController.retrieveUserByName(userName).userId()));
+            else
+                valid = true;
+        } while (!valid);
         String cmd;
         io.novepusPrintln(String.format("Are you sure to unfollow User '%s'?", userName));
         io.novepusPrintln("'w' to confirm, otherwise quit");
@@ -390,24 +442,33 @@ public final class NovepusController {
             io.novepusPrintln("Canceled");
             return;
         }
-        DBController.userUnfollow(currentUser, userName);
+        repository.userUnfollow(currentUser, userName);
         io.novepusPrintln("Unfollowed");
     }
 
     private void displayAllUsers() throws SQLException {
-        ArrayList<User> allUsers = new ArrayList<>();
-        for (int id : DBController.getAllUserId()) {
-            User user = DBController.retrieveUserById(id);
-            allUsers.add(user);
+        int total = 0;
+        io.novepusPrintln("Displaying all Users");
+        int lastUserId = 0;
+        while (true) {
+            List<Integer> batch;
+            try (Stream<Integer> userIds = repository.streamUserIds(lastUserId, USER_BATCH_SIZE)) {
+                batch = userIds.collect(Collectors.toList());
+            } catch (Cursor.FetchException fetchException) {
+                throw fetchException.getCause();
+            }
+            if (batch.isEmpty())
+                break;
+            total += io.printUserList(repository.retrieveUsersByIds(batch));
+            lastUserId = batch.get(batch.size() - 1);
+            if (batch.size() < USER_BATCH_SIZE)
+                break;
         }
-        io.novepusPrintln(String.format("Displaying all Users, %d in total!", allUsers.size()));
-        io.printUserList(allUsers);
-        io.novepusPrintln("Display all Users finished!");
+        io.novepusPrintln(String.format("Display all Users finished, %d in total!", total));
     }
 
     private void displayUserDetails() throws SQLException {
-        User user = DBController.retrieveUserByName(currentUser);
-        io.printUser(user);
+        io.printUser(ViewPrefetcher.prefetchUser(repository, currentUser));
     }
 
     private void editUserDetails() throws SQLException {
@@ -432,7 +493,7 @@ public final class NovepusController {
         String confirm;
         io.novepusPrintln("You have to input your old Password first");
         oldPassword = io.readPassword();
-        if (!Objects.equals(oldPassword, DBController.retrieveUserByName(currentUser).userPassword())) {
+        if (!auth.verify(currentUser, oldPassword)) {
             io.novepusPrintln("Incorrect Password! Going Back");
             return;
         }
@@ -446,9 +507,9 @@ public final class NovepusController {
             if (!newPassword.equals(confirm))
                 io.novepusPrintln("Confirmation Failure!");
         } while (!newPassword.equals(confirm) | newPassword.length() > 15);
-        DBController.setUserPassword(currentUser, newPassword);
+        repository.setUserPassword(currentUser, newPassword);
         io.novepusPrintln("Password Reset!");
-        DBController.createMessage(new Message("Admin", currentUser, "Reset Password."));
+        repository.createMessage(new Message("Admin", currentUser, "Reset Password."));
 
     }
 
@@ -460,9 +521,9 @@ public final class NovepusController {
             if (newEmail.length() > 28)
                 io.novepusPrintln("Email oversize!");
         } while (newEmail.length() > 28);
-        DBController.setUserEmail(currentUser, newEmail);
+        repository.setUserEmail(currentUser, newEmail);
         io.novepusPrintln("Email Reset!");
-        DBController.createMessage(new Message("Admin", currentUser, "Reset Email."));
+        repository.createMessage(new Message("Admin", currentUser, "Reset Email."));
 
     }
 
@@ -472,11 +533,11 @@ public final class NovepusController {
             io.novepusPrintln("Input the interest word ('~' to quit)");
             interest = io.readLine();
             if (!Objects.equals(interest, "~")) {
-                DBController.addUserInterest(currentUser, interest);
+                repository.addUserInterest(currentUser, interest);
                 io.novepusPrintln(String.format("'%s' added!", interest));
             }
         } while (!Objects.equals(interest, "~"));
-        io.printUser(DBController.retrieveUserByName(currentUser));
+        io.printUser(ViewPrefetcher.prefetchUser(repository, currentUser));
     }
 
     private void deletePost() throws SQLException {
@@ -495,60 +556,75 @@ public final class NovepusController {
                 pid = 0;
                 continue;
             }
-            if (DBController.postNotExist(pid) || DBController.retrievePostById(pid).deleted()) {
+            if (repository.postNotExist(pid) || repository.retrievePostById(pid).deleted()) {
                 io.novepusPrintln(String.format("Post (pid=%s) does not exist! Cannot delete!", pid));
                 continue;
             }
-            if (!Objects.equals(DBController.retrievePostById(pid).postAuthor(), currentUser))
+            if (!Objects.equals(repository.retrievePostById(pid).postAuthor(), currentUser))
                 io.novepusPrintln(String.format("Post (pid=%s) is not yours! Cannot delete!", pid));
-        } while (DBController.postNotExist(pid) || DBController.retrievePostById(pid).deleted() ||
-                !Objects.equals(DBController.retrievePostById(pid).postAuthor(), currentUser));
-        DBController.setPostStatus(pid, true);
-        io.novepusPrintln(String.format("Successfully delete Post '%s' at %s",
-                DBController.retrievePostById(pid).postTitle(), new Date()));
+        } while (repository.postNotExist(pid) || repository.retrievePostById(pid).deleted() ||
+                !Objects.equals(repository.retrievePostById(pid).postAuthor(), currentUser));
+        String title = repository.retrievePostById(pid).postTitle();
+        repository.setPostStatus(pid, true);
+        io.novepusPrintln(String.format("Successfully delete Post '%s' at %s", title, new Date()));
     }
 
     private void displayMyPosts() throws SQLException {
-        User user = DBController.retrieveUserByName(currentUser);
-        ArrayList<Post> userPosts = new ArrayList<>();
-        for (int id : user.postIdList()) {
-            Post post = DBController.retrievePostById(id);
-            if (!post.deleted())
-                userPosts.add(post);
-        }
+        User user = repository.retrieveUserByName(currentUser);
+        ArrayList<Integer> postIds = new ArrayList<>(user.postIdList());
+        postIds.sort(Comparator.reverseOrder());
+        ArrayList<PostSummary> userPosts = repository.getPostSummariesByIds(postIds);
         io.novepusPrintln(userPosts.size() + " Posts in total!");
         io.printPostList(userPosts);
         io.novepusPrintln("Display posts finished!");
     }
 
-    private void displayAllPosts() throws SQLException {
-        ArrayList<Post> allPosts = new ArrayList<>();
-        for (int id : DBController.getAllPostId()) {
-            Post post = DBController.retrievePostById(id);
-            if (!post.deleted())
-                allPosts.add(post);
-        }
-        io.novepusPrintln(String.format("Displaying all Posts, %d in total!", allPosts.size()));
-        io.printPostList(allPosts);
+    private String displayAllPosts(String pagerPrompt) throws SQLException {
+        int cursor = Integer.MAX_VALUE;
+        int page = 0;
+        ArrayList<PostSummary> posts;
+        String answer;
+        do {
+            answer = null;
+            posts = repository.getPostSummaryPage(cursor, POST_PAGE_SIZE);
+            if (posts.isEmpty())
+                break;
+            io.novepusPrintln(String.format("Displaying recent Posts, page %d (%d Posts)", ++page, posts.size()));
+            io.printPostList(posts);
+            cursor = posts.get(posts.size() - 1).postId();
+            if (posts.size() < POST_PAGE_SIZE)
+                break;
+            io.novepusPrintln(pagerPrompt);
+            answer = io.readLine().strip();
+        } while (answer.equalsIgnoreCase("n"));
         io.novepusPrintln("Display posts finished!");
+        return answer;
     }
 
     private void displayInterestPosts() throws SQLException {
         io.novepusPrintln("You are interested in " +
-                DBController.getUserInterest(currentUser));
-        ArrayList<Post> posts = new ArrayList<>();
-        for (int id : DBController.getUserInterestPost(currentUser)) {
-            Post post = DBController.retrievePostById(id);
-            if (!post.deleted())
-                posts.add(post);
-        }
+                repository.getUserInterest(currentUser));
+        ArrayList<PostSummary> posts = repository.getPostSummariesByIds(
+                repository.getInterestFeed(currentUser, FEED_SIZE, FeedEngine.Ranking.POPULAR));
         io.novepusPrintln(String.format("Displaying interesting Posts, %d in total!", posts.size()));
         io.printPostList(posts);
         io.novepusPrintln("Display interesting posts finished!");
     }
 
+    private void searchPosts() throws SQLException {
+        io.novepusPrintln("Input the words to search ('~' to quit)");
+        String query = io.readLine();
+        if (query.equals("~"))
+            return;
+        ArrayList<PostSummary> posts = repository.getPostSummariesByIds(
+                repository.searchPosts(query, SEARCH_SIZE));
+        io.novepusPrintln(String.format("Displaying matching Posts, %d in total!", posts.size()));
+        io.printPostList(posts);
+        io.novepusPrintln("Display matching posts finished!");
+    }
+
     private void selectPost() throws SQLException {
-        displayAllPosts();
+        String answer = displayAllPosts("'n' for next page, or input the 'pid' to select ('~' to quit)");
         String pids;
         int pid;
         if (Objects.equals(currentUser, GUEST_USER_NAME)) {
@@ -558,8 +634,13 @@ public final class NovepusController {
                 return;
         }
         do {
-            io.novepusPrintln("Input the 'pid' ('~' to quit)");
-            pids = io.readLine();
+            if (answer != null && (answer.equals("~") || answer.matches("\\d+")))
+                pids = answer;
+            else {
+                io.novepusPrintln("Input the 'pid' ('~' to quit)");
+                pids = io.readLine();
+            }
+            answer = null;
             if (pids.equals("~"))
                 return;
             try {
@@ -569,9 +650,9 @@ public final class NovepusController {
                 pid = 0;
                 continue;
             }
-            if (DBController.postNotExist(pid) || DBController.retrievePostById(pid).deleted())
+            if (repository.postNotExist(pid) || repository.retrievePostById(pid).deleted())
                 io.novepusPrintln(String.format("Post (pid=%s) does not exist! Cannot select!", pid));
-        } while (DBController.postNotExist(pid) || DBController.retrievePostById(pid).deleted());
+        } while (repository.postNotExist(pid) || repository.retrievePostById(pid).deleted());
         String cmd;
         do {
             displayPostDetails(pid);
@@ -579,14 +660,14 @@ public final class NovepusController {
             cmd = io.readLine().strip().toLowerCase();
             switch (cmd) {
                 case "l" -> {
-                    DBController.userLikePost(currentUser, pid);
+                    repository.userLikePost(currentUser, pid);
                     io.novepusPrintln("Liked");
                 }
                 case "c" -> {
                     String content;
                     io.novepusPrintln("You may make comment to this Post");
                     content = io.readText();
-                    DBController.createComment(new Comment(pid, currentUser, content));
+                    repository.createComment(new Comment(pid, currentUser, content));
                     io.novepusPrintln(String.format("Successfully comment on Post (pid=%d)", pid));
                 }
                 case "q" -> io.novepusPrintln("Going Back");
@@ -595,28 +676,72 @@ public final class NovepusController {
         } while (!Objects.equals(cmd, "q"));
     }
 
+    private void showQueryStats(boolean reset) {
+        if (!Objects.equals(currentUser, MetricsData.ADMIN_USER.getData())) {
+            io.novepusPrintln("Unrecognized Command stats");
+            return;
+        }
+        QueryStats stats = QueryStats.global();
+        io.printReport(stats.report(MetricsData.REPORT_LIMIT.getInt()));
+        if (InteractionTracker.global().isEnabled())
+            io.printReport(InteractionTracker.global().report(MetricsData.REPORT_LIMIT.getInt()));
+        io.novepusPrintln(unitOfWork.toString());
+        String caches = EntityCache.report();
+        if (!caches.isEmpty())
+            io.printReport(caches);
+        if (reset) {
+            stats.reset();
+            InteractionTracker.global().reset();
+            EntityCache.resetAll();
+            io.novepusPrintln("Statistics reset");
+        }
+    }
+
     private void displayPostDetails(int postId) throws SQLException {
-        Post post = DBController.retrievePostById(postId);
-        io.printPost(post);
+        io.printPost(ViewPrefetcher.prefetchPost(repository, postId));
     }
 
     public void run() throws SQLException {
-        io.showWelcomePage();
-        mainMenu();
+        try {
+            io.showWelcomePage();
+            mainMenu();
+        } finally {
+            io.flush();
+        }
     }
 
     public void connectToOracle() {
         try {
-            DriverManager.registerDriver(new OracleDriver());
-            connection = (OracleConnection) DriverManager.getConnection(OracleData.URL.getData(),
-                    OracleData.USERNAME.getData(), OracleData.PASSWORD.getData());
-            DBController.conn = connection;
-            io.novepusPrintln("Successfully connect to Oracle -> " + connection);
+            connectionPool = DBController.getConnectionPool();
+            if (connectionPool == null || connectionPool.isClosed()) {
+                DriverManager.registerDriver(new OracleDriver());
+                connectionPool = new ConnectionPool(OracleData.URL.getData(),
+                        OracleData.USERNAME.getData(), OracleData.PASSWORD.getData());
+                DBController.setConnectionPool(connectionPool);
+                DBController.preload();
+            }
+            io.novepusPrintln("Successfully connect to Oracle -> " + connectionPool);
         } catch (SQLException sqlException) {
-            connection = null;
+            connectionPool = null;
             sqlException.printStackTrace();
             io.novepusPrintln("System Failure! Cannot connect to Oracle! Exit");
+            io.flush();
+            System.exit(0);
+        }
+    }
+
+    private InMemoryRepository openInMemory(String snapshotFile) {
+        try {
+            InMemoryRepository inMemory = InMemoryRepository.open(snapshotFile);
+            io.novepusPrintln("Using in-memory storage" +
+                    (snapshotFile.isBlank() ? "" : " with snapshot " + snapshotFile));
+            return inMemory;
+        } catch (IOException ioException) {
+            ioException.printStackTrace();
+            io.novepusPrintln("System Failure! Cannot load snapshot! Exit");
+            io.flush();
             System.exit(0);
+            return null;
         }
     }
 
@@ -624,12 +749,63 @@ public final class NovepusController {
         return io;
     }
 
-    public OracleConnection getConnection() {
-        return connection;
+    public ConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
+    public NovepusRepository getRepository() {
+        return repository;
+    }
+
+    private MailboxService getMailbox() {
+        if (mailbox == null || !Objects.equals(mailbox.getUserName(), currentUser))
+            mailbox = new MailboxService(repository, currentUser);
+        return mailbox;
+    }
+
+    private final class SessionListener implements PromptListener {
+        private final InteractionTracker tracker = InteractionTracker.global();
+
+        @Override
+        public void beforePrompt() {
+            unitOfWork.clear();
+            if (tracker.isEnabled())
+                tracker.beforePrompt();
+        }
+
+        @Override
+        public void afterPrompt(String input) {
+            if (!Objects.equals(currentUser, GUEST_USER_NAME))
+                repository.userHeartbeat(currentUser);
+            if (tracker.isEnabled())
+                tracker.afterPrompt(input);
+        }
+    }
+
+    public void disconnect() throws SQLException {
+        logout();
+    }
+
+    private void logout() throws SQLException {
+        if (session != null)
+            auth.logout(session);
+        else if (!Objects.equals(currentUser, GUEST_USER_NAME))
+            repository.setUserStatus(currentUser, false);
+        setCurrentUser(GUEST_USER_NAME);
+    }
+
+    private int currentUserId() throws SQLException {
+        AuthService.Session current = auth.validate(session == null ? null : session.token());
+        if (current != null && Objects.equals(current.userName(), currentUser))
+            return current.userId();
+        return repository.getUserId(currentUser);
     }
 
     public void setCurrentUser(String currentUser) {
+        if (session != null && !Objects.equals(session.userName(), currentUser))
+            session = null;
         this.currentUser = currentUser;
+        this.mailbox = null;
         io.setUsername(currentUser);
     }
 }
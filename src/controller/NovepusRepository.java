@@ -0,0 +1,148 @@
+package controller;
+
+import model.Comment;
+import model.Credentials;
+import model.Message;
+import model.Post;
+import model.PostSummary;
+import model.User;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+
+public interface NovepusRepository extends AutoCloseable {
+    void createUser(User user)
+            throws SQLException;
+
+    void setUserStatus(String userName, boolean online)
+            throws SQLException;
+
+    void userHeartbeat(String userName);
+
+    void setUserPassword(String userName, String newPassword)
+            throws SQLException;
+
+    void setUserEmail(String userName, String newEmail)
+            throws SQLException;
+
+    User retrieveUserById(int userId)
+            throws SQLException;
+
+    User retrieveUserByName(String userName)
+            throws SQLException;
+
+    ArrayList<User> retrieveUsersByIds(Collection<Integer> userIds)
+            throws SQLException;
+
+    boolean userExist(String username)
+            throws SQLException;
+
+    Credentials retrieveCredentials(String userName)
+            throws SQLException;
+
+    int getUserId(String userName)
+            throws SQLException;
+
+    ArrayList<String> getUserInterest(String userName)
+            throws SQLException;
+
+    void addUserInterest(String userName, String labelName);
+
+    void userFollow(String userName, String followedName);
+
+    void userUnfollow(String userName, String followedName);
+
+    boolean isFollowing(int userId, int followedId);
+
+    int getFollowingCount(int userId);
+
+    int getFollowerCount(int userId);
+
+    ArrayList<Integer> getFollowingIds(int userId);
+
+    ArrayList<Integer> getFollowerIds(int userId);
+
+    void userLikePost(String userName, int postId);
+
+    ArrayList<Integer> getUserInterestPost(String userName);
+
+    ArrayList<Integer> getInterestFeed(String userName, int k, FeedEngine.Ranking ranking);
+
+    Stream<Integer> streamUserInbox(String userName)
+            throws SQLException;
+
+    int getUserInboxCount(String userName);
+
+    ArrayList<Integer> getUserSent(String userName);
+
+    ArrayList<Message> getMailbox(String userName, int afterMessageId)
+            throws SQLException;
+
+    ArrayList<Integer> getMailboxIds(String userName, int upToMessageId)
+            throws SQLException;
+
+    int getOnlineUserNum();
+
+    Stream<Integer> streamAllUserIds()
+            throws SQLException;
+
+    Stream<Integer> streamUserIds(int afterUserId, int limit)
+            throws SQLException;
+
+    void createPost(Post post)
+            throws SQLException;
+
+    void setPostStatus(int postId, boolean deleted)
+            throws SQLException;
+
+    ArrayList<Integer> searchPosts(String query, int k);
+
+    Post retrievePostById(int postId)
+            throws SQLException;
+
+    ArrayList<PostSummary> getPostSummaryPage(int beforePostId, int pageSize)
+            throws SQLException;
+
+    ArrayList<PostSummary> getPostSummariesByIds(Collection<Integer> postIds)
+            throws SQLException;
+
+    boolean postNotExist(int postId)
+            throws SQLException;
+
+    Stream<Integer> streamAllPostIds()
+            throws SQLException;
+
+    int getPostLikes(int postId);
+
+    ArrayList<String> getPostLabel(int postId);
+
+    void createComment(Comment comment);
+
+    ArrayList<Comment> getPostComments(int postId);
+
+    Stream<Integer> streamPostCommentIds(int postId)
+            throws SQLException;
+
+    String getLabelById(int labelId);
+
+    ArrayList<String> getLabelsByIds(Collection<Integer> labelIds);
+
+    Comment retrieveCommentById(int commentId);
+
+    void createMessage(Message message)
+            throws SQLException;
+
+    void setMessageStatus(int messageId, boolean deleted);
+
+    Message retrieveMessageById(int messageId)
+            throws SQLException;
+
+    boolean messageNotExist(int messageId);
+
+    @Override
+    default void close() {
+    }
+}
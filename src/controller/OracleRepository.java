@@ -0,0 +1,302 @@
+package controller;
+
+import model.Comment;
+import model.Credentials;
+import model.Message;
+import model.Post;
+import model.PostSummary;
+import model.User;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+
+public final class OracleRepository implements NovepusRepository {
+    @Override
+    public void createUser(User user)
+            throws SQLException {
+        DBController.createUser(user);
+    }
+
+    @Override
+    public void setUserStatus(String userName, boolean online)
+            throws SQLException {
+        DBController.setUserStatus(userName, online);
+    }
+
+    @Override
+    public void userHeartbeat(String userName) {
+        DBController.userHeartbeat(userName);
+    }
+
+    @Override
+    public void setUserPassword(String userName, String newPassword)
+            throws SQLException {
+        DBController.setUserPassword(userName, newPassword);
+    }
+
+    @Override
+    public void setUserEmail(String userName, String newEmail)
+            throws SQLException {
+        DBController.setUserEmail(userName, newEmail);
+    }
+
+    @Override
+    public User retrieveUserById(int userId)
+            throws SQLException {
+        return DBController.retrieveUserById(userId);
+    }
+
+    @Override
+    public User retrieveUserByName(String userName)
+            throws SQLException {
+        return DBController.retrieveUserByName(userName);
+    }
+
+    @Override
+    public ArrayList<User> retrieveUsersByIds(Collection<Integer> userIds)
+            throws SQLException {
+        return DBController.retrieveUsersByIds(userIds);
+    }
+
+    @Override
+    public boolean userExist(String username)
+            throws SQLException {
+        return DBController.userExist(username);
+    }
+
+    @Override
+    public Credentials retrieveCredentials(String userName)
+            throws SQLException {
+        return DBController.retrieveCredentials(userName);
+    }
+
+    @Override
+    public int getUserId(String userName)
+            throws SQLException {
+        return DBController.getUserId(userName);
+    }
+
+    @Override
+    public ArrayList<String> getUserInterest(String userName)
+            throws SQLException {
+        return DBController.getUserInterest(userName);
+    }
+
+    @Override
+    public void addUserInterest(String userName, String labelName) {
+        DBController.addUserInterest(userName, labelName);
+    }
+
+    @Override
+    public void userFollow(String userName, String followedName) {
+        DBController.userFollow(userName, followedName);
+    }
+
+    @Override
+    public void userUnfollow(String userName, String followedName) {
+        DBController.userUnfollow(userName, followedName);
+    }
+
+    @Override
+    public boolean isFollowing(int userId, int followedId) {
+        return DBController.isFollowing(userId, followedId);
+    }
+
+    @Override
+    public int getFollowingCount(int userId) {
+        return DBController.getFollowingCount(userId);
+    }
+
+    @Override
+    public int getFollowerCount(int userId) {
+        return DBController.getFollowerCount(userId);
+    }
+
+    @Override
+    public ArrayList<Integer> getFollowingIds(int userId) {
+        return DBController.getFollowingIds(userId);
+    }
+
+    @Override
+    public ArrayList<Integer> getFollowerIds(int userId) {
+        return DBController.getFollowerIds(userId);
+    }
+
+    @Override
+    public void userLikePost(String userName, int postId) {
+        DBController.userLikePost(userName, postId);
+    }
+
+    @Override
+    public ArrayList<Integer> getUserInterestPost(String userName) {
+        return DBController.getUserInterestPost(userName);
+    }
+
+    @Override
+    public ArrayList<Integer> getInterestFeed(String userName, int k, FeedEngine.Ranking ranking) {
+        return DBController.getInterestFeed(userName, k, ranking);
+    }
+
+    @Override
+    public Stream<Integer> streamUserInbox(String userName)
+            throws SQLException {
+        return DBController.streamUserInbox(userName);
+    }
+
+    @Override
+    public int getUserInboxCount(String userName) {
+        return DBController.getUserInboxCount(userName);
+    }
+
+    @Override
+    public ArrayList<Integer> getUserSent(String userName) {
+        return DBController.getUserSent(userName);
+    }
+
+    @Override
+    public ArrayList<Message> getMailbox(String userName, int afterMessageId)
+            throws SQLException {
+        return DBController.getMailbox(userName, afterMessageId);
+    }
+
+    @Override
+    public ArrayList<Integer> getMailboxIds(String userName, int upToMessageId)
+            throws SQLException {
+        return DBController.getMailboxIds(userName, upToMessageId);
+    }
+
+    @Override
+    public int getOnlineUserNum() {
+        return DBController.getOnlineUserNum();
+    }
+
+    @Override
+    public Stream<Integer> streamAllUserIds()
+            throws SQLException {
+        return DBController.streamAllUserIds();
+    }
+
+    @Override
+    public Stream<Integer> streamUserIds(int afterUserId, int limit)
+            throws SQLException {
+        return DBController.streamUserIds(afterUserId, limit);
+    }
+
+    @Override
+    public void createPost(Post post)
+            throws SQLException {
+        DBController.createPost(post);
+    }
+
+    @Override
+    public void setPostStatus(int postId, boolean deleted)
+            throws SQLException {
+        DBController.setPostStatus(postId, deleted);
+    }
+
+    @Override
+    public ArrayList<Integer> searchPosts(String query, int k) {
+        return DBController.searchPosts(query, k);
+    }
+
+    @Override
+    public Post retrievePostById(int postId)
+            throws SQLException {
+        return DBController.retrievePostById(postId);
+    }
+
+    @Override
+    public ArrayList<PostSummary> getPostSummaryPage(int beforePostId, int pageSize)
+            throws SQLException {
+        return DBController.getPostSummaryPage(beforePostId, pageSize);
+    }
+
+    @Override
+    public ArrayList<PostSummary> getPostSummariesByIds(Collection<Integer> postIds)
+            throws SQLException {
+        return DBController.getPostSummariesByIds(postIds);
+    }
+
+    @Override
+    public boolean postNotExist(int postId)
+            throws SQLException {
+        return DBController.postNotExist(postId);
+    }
+
+    @Override
+    public Stream<Integer> streamAllPostIds()
+            throws SQLException {
+        return DBController.streamAllPostIds();
+    }
+
+    @Override
+    public int getPostLikes(int postId) {
+        return DBController.getPostLikes(postId);
+    }
+
+    @Override
+    public ArrayList<String> getPostLabel(int postId) {
+        return DBController.getPostLabel(postId);
+    }
+
+    @Override
+    public void createComment(Comment comment) {
+        DBController.createComment(comment);
+    }
+
+    @Override
+    public ArrayList<Comment> getPostComments(int postId) {
+        return DBController.getPostComments(postId);
+    }
+
+    @Override
+    public Stream<Integer> streamPostCommentIds(int postId)
+            throws SQLException {
+        return DBController.streamPostCommentIds(postId);
+    }
+
+    @Override
+    public String getLabelById(int labelId) {
+        return DBController.getLabelById(labelId);
+    }
+
+    @Override
+    public ArrayList<String> getLabelsByIds(Collection<Integer> labelIds) {
+        return DBController.getLabelsByIds(labelIds);
+    }
+
+    @Override
+    public Comment retrieveCommentById(int commentId) {
+        return DBController.retrieveCommentById(commentId);
+    }
+
+    @Override
+    public void createMessage(Message message)
+            throws SQLException {
+        DBController.createMessage(message);
+    }
+
+    @Override
+    public void setMessageStatus(int messageId, boolean deleted) {
+        DBController.setMessageStatus(messageId, deleted);
+    }
+
+    @Override
+    public Message retrieveMessageById(int messageId)
+            throws SQLException {
+        return DBController.retrieveMessageById(messageId);
+    }
+
+    @Override
+    public boolean messageNotExist(int messageId) {
+        return DBController.messageNotExist(messageId);
+    }
+
+    @Override
+    public void close() {
+        DBController.shutdown();
+    }
+}
@@ -0,0 +1,65 @@
+package controller;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+
+public final class PooledConnection implements AutoCloseable {
+    private final ConnectionPool pool;
+    private final Connection connection;
+    private final StatementCache statements;
+    private long lastUsed;
+    private boolean broken;
+
+    PooledConnection(ConnectionPool pool, Connection connection, int statementCacheSize) {
+        this.pool = pool;
+        this.connection = connection;
+        this.statements = new StatementCache(connection, statementCacheSize);
+        this.lastUsed = System.nanoTime();
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public StatementCache getStatements() {
+        return statements;
+    }
+
+    public void markBroken() {
+        broken = true;
+    }
+
+    boolean isBroken() {
+        return broken;
+    }
+
+    long getLastUsed() {
+        return lastUsed;
+    }
+
+    void touch() {
+        lastUsed = System.nanoTime();
+    }
+
+    boolean validate(int timeoutSeconds) {
+        try {
+            return !broken && connection.isValid(timeoutSeconds);
+        } catch (SQLException sqlException) {
+            return false;
+        }
+    }
+
+    void destroy() {
+        statements.close();
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.release(this);
+    }
+}
@@ -0,0 +1,138 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+
+public final class PresenceTracker {
+    private static final class Presence {
+        private int sessions;
+        private volatile long lastSeen;
+    }
+
+    private final ConcurrentHashMap<String, Presence> online = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Boolean> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger onlineCount = new AtomicInteger();
+    private final AtomicLong nextExpiry = new AtomicLong();
+    private final long timeoutNanos;
+    private final long expiryIntervalNanos;
+    private final LongSupplier clock;
+
+    public PresenceTracker(long timeoutMillis) {
+        this(timeoutMillis, System::nanoTime);
+    }
+
+    public PresenceTracker(long timeoutMillis, LongSupplier clock) {
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, timeoutMillis));
+        this.expiryIntervalNanos = Math.min(timeoutNanos, TimeUnit.SECONDS.toNanos(1));
+        this.clock = clock;
+        this.nextExpiry.set(clock.getAsLong() + expiryIntervalNanos);
+    }
+
+    public void login(String userName) {
+        long now = clock.getAsLong();
+        online.compute(userName, (name, presence) -> {
+            if (presence == null)
+                presence = arrive(name);
+            presence.sessions++;
+            presence.lastSeen = now;
+            return presence;
+        });
+    }
+
+    public void logout(String userName) {
+        online.computeIfPresent(userName, (name, presence) -> --presence.sessions > 0 ? presence : leave(name));
+    }
+
+    public void heartbeat(String userName) {
+        long now = clock.getAsLong();
+        online.compute(userName, (name, presence) -> {
+            if (presence == null) {
+                presence = arrive(name);
+                presence.sessions = 1;
+            }
+            presence.lastSeen = now;
+            return presence;
+        });
+    }
+
+    private Presence arrive(String userName) {
+        onlineCount.incrementAndGet();
+        pending.put(userName, Boolean.TRUE);
+        return new Presence();
+    }
+
+    private Presence leave(String userName) {
+        onlineCount.decrementAndGet();
+        pending.put(userName, Boolean.FALSE);
+        return null;
+    }
+
+    public int expire() {
+        long now = clock.getAsLong();
+        nextExpiry.set(now + expiryIntervalNanos);
+        int expired = 0;
+        for (Map.Entry<String, Presence> entry : online.entrySet()) {
+            if (now - entry.getValue().lastSeen < timeoutNanos)
+                continue;
+            boolean[] removed = {false};
+            online.computeIfPresent(entry.getKey(), (name, presence) -> {
+                if (now - presence.lastSeen < timeoutNanos)
+                    return presence;
+                removed[0] = true;
+                return leave(name);
+            });
+            if (removed[0])
+                expired++;
+        }
+        return expired;
+    }
+
+    public int expireIfDue() {
+        long due = nextExpiry.get();
+        long now = clock.getAsLong();
+        if (now - due < 0 || !nextExpiry.compareAndSet(due, now + expiryIntervalNanos))
+            return 0;
+        return expire();
+    }
+
+    public boolean isOnline(String userName) {
+        return online.containsKey(userName);
+    }
+
+    public int getOnlineCount() {
+        return onlineCount.get();
+    }
+
+    public ArrayList<Map.Entry<String, Boolean>> drainPending(int max) {
+        ArrayList<Map.Entry<String, Boolean>> drained = new ArrayList<>(Math.min(max, pending.size()));
+        for (String userName : pending.keySet()) {
+            if (drained.size() >= max)
+                break;
+            Boolean status = pending.remove(userName);
+            if (status != null)
+                drained.add(Map.entry(userName, status));
+        }
+        return drained;
+    }
+
+    public void requeue(Collection<Map.Entry<String, Boolean>> changes) {
+        for (Map.Entry<String, Boolean> change : changes)
+            pending.putIfAbsent(change.getKey(), change.getValue());
+    }
+
+    public boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    public void clear() {
+        for (String userName : online.keySet())
+            online.computeIfPresent(userName, (name, presence) -> leave(name));
+    }
+}
@@ -0,0 +1,247 @@
+package controller;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+
+
+public abstract class RecordReader implements AutoCloseable {
+    protected final BufferedReader reader;
+    private long lineNumber;
+
+    private RecordReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    public static RecordReader open(Path file)
+            throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        if (name.endsWith(".csv"))
+            return new Csv(reader);
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson"))
+            return new JsonLines(reader);
+        reader.close();
+        throw new IOException("Unsupported file type " + file + " (expected .csv or .jsonl)");
+    }
+
+    public abstract HashMap<String, String> next()
+            throws IOException;
+
+    protected String readLine()
+            throws IOException {
+        String line = reader.readLine();
+        if (line != null)
+            lineNumber++;
+        return line;
+    }
+
+    protected IOException malformed(String reason) {
+        return new IOException("Line " + lineNumber + ": " + reason);
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close()
+            throws IOException {
+        reader.close();
+    }
+
+    private static final class Csv extends RecordReader {
+        private ArrayList<String> header;
+
+        Csv(BufferedReader reader) {
+            super(reader);
+        }
+
+        @Override
+        public HashMap<String, String> next()
+                throws IOException {
+            if (header == null) {
+                header = readFields();
+                if (header == null)
+                    return null;
+                header.replaceAll(name -> name.strip().toLowerCase(Locale.ROOT));
+            }
+            ArrayList<String> fields;
+            do {
+                fields = readFields();
+                if (fields == null)
+                    return null;
+            } while (fields.size() == 1 && fields.get(0).isEmpty());
+            if (fields.size() != header.size())
+                throw malformed("expected " + header.size() + " fields but found " + fields.size());
+            HashMap<String, String> record = new HashMap<>();
+            for (int i = 0; i < fields.size(); i++)
+                record.put(header.get(i), fields.get(i));
+            return record;
+        }
+
+        private ArrayList<String> readFields()
+                throws IOException {
+            String line = readLine();
+            if (line == null)
+                return null;
+            ArrayList<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == line.length()) {
+                    if (!quoted)
+                        break;
+                    line = readLine();
+                    if (line == null)
+                        throw malformed("unterminated quoted field");
+                    field.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = line.charAt(i++);
+                if (quoted) {
+                    if (c != '"')
+                        field.append(c);
+                    else if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else
+                        quoted = false;
+                } else if (c == '"')
+                    quoted = true;
+                else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else
+                    field.append(c);
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    private static final class JsonLines extends RecordReader {
+        private String line;
+        private int position;
+
+        JsonLines(BufferedReader reader) {
+            super(reader);
+        }
+
+        @Override
+        public HashMap<String, String> next()
+                throws IOException {
+            do {
+                line = readLine();
+                if (line == null)
+                    return null;
+            } while (line.isBlank());
+            position = 0;
+            HashMap<String, String> record = new HashMap<>();
+            expect('{');
+            if (peek() == '}') {
+                position++;
+                return record;
+            }
+            do {
+                String key = readString();
+                expect(':');
+                record.put(key.toLowerCase(Locale.ROOT), readValue());
+            } while (accept(','));
+            expect('}');
+            return record;
+        }
+
+        private String readValue()
+                throws IOException {
+            char c = peek();
+            if (c == '"')
+                return readString();
+            if (c == '[') {
+                position++;
+                StringBuilder values = new StringBuilder();
+                if (peek() == ']') {
+                    position++;
+                    return "";
+                }
+                do {
+                    if (!values.isEmpty())
+                        values.append(';');
+                    values.append(readValue());
+                } while (accept(','));
+                expect(']');
+                return values.toString();
+            }
+            int start = position;
+            while (position < line.length() && ",}] \t".indexOf(line.charAt(position)) < 0)
+                position++;
+            String literal = line.substring(start, position);
+            if (literal.isEmpty())
+                throw malformed("missing value");
+            return literal.equals("null") ? null : literal;
+        }
+
+        private String readString()
+                throws IOException {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (position < line.length()) {
+                char c = line.charAt(position++);
+                if (c == '"')
+                    return value.toString();
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (position >= line.length())
+                    break;
+                char escaped = line.charAt(position++);
+                switch (escaped) {
+                    case 'n' -> value.append('\n');
+                    case 't' -> value.append('\t');
+                    case 'r' -> value.append('\r');
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'u' -> {
+                        if (position + 4 > line.length())
+                            throw malformed("truncated unicode escape");
+                        value.append((char) Integer.parseInt(line.substring(position, position + 4), 16));
+                        position += 4;
+                    }
+                    default -> value.append(escaped);
+                }
+            }
+            throw malformed("unterminated string");
+        }
+
+        private char peek()
+                throws IOException {
+            while (position < line.length() && Character.isWhitespace(line.charAt(position)))
+                position++;
+            if (position >= line.length())
+                throw malformed("unexpected end of record");
+            return line.charAt(position);
+        }
+
+        private boolean accept(char c)
+                throws IOException {
+            if (peek() != c)
+                return false;
+            position++;
+            return true;
+        }
+
+        private void expect(char c)
+                throws IOException {
+            if (!accept(c))
+                throw malformed("expected '" + c + "' at column " + (position + 1));
+        }
+    }
+}
@@ -0,0 +1,468 @@
+package controller;
+
+import controller.util.IntHashSet;
+import controller.util.LongMinHeap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+
+public final class SearchIndex {
+    public static final int TITLE_WEIGHT = 3;
+    public static final int TEXT_WEIGHT = 1;
+    private static final int MAX_TOKEN_LENGTH = 40;
+    static final int TAIL_LIMIT = 64;
+    static final int BLOCK_SIZE = 128;
+    private static final float K1 = 1.2f;
+    private static final float BOUND_SLACK = 1.0001f;
+    private static final int NO_MORE = Integer.MAX_VALUE;
+    private static final int[] EMPTY = new int[0];
+    private static final long[] EMPTY_ENTRIES = new long[0];
+    private static final Block[] NO_BLOCKS = new Block[0];
+
+    public record Document(int postId, String text, int weight) {
+    }
+
+    private final ConcurrentHashMap<String, Postings> terms = new ConcurrentHashMap<>();
+    private final IntHashSet documents = new IntHashSet();
+    private final Set<Integer> deleted = ConcurrentHashMap.newKeySet();
+
+    public void add(int postId, String text, int weight) {
+        HashMap<String, Integer> frequencies = new HashMap<>();
+        tokenize(text, frequencies);
+        if (frequencies.isEmpty())
+            return;
+        synchronized (documents) {
+            documents.add(postId);
+        }
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet())
+            terms.computeIfAbsent(entry.getKey(), term -> new Postings())
+                    .add(postId, entry.getValue() * weight);
+    }
+
+    public void addAll(Collection<Document> batch) {
+        batch.parallelStream().forEach(document -> add(document.postId(), document.text(), document.weight()));
+    }
+
+    public void compact() {
+        terms.values().parallelStream().forEach(Postings::compact);
+    }
+
+    public void setDeleted(int postId, boolean isDeleted) {
+        if (isDeleted)
+            deleted.add(postId);
+        else
+            deleted.remove(postId);
+    }
+
+    public int[] search(String query, int k) {
+        LinkedHashSet<String> queryTerms = new LinkedHashSet<>();
+        tokenize(query, queryTerms);
+        if (queryTerms.isEmpty() || k <= 0)
+            return EMPTY;
+        int n = Math.max(1, getDocumentCount());
+        ArrayList<Cursor> cursors = new ArrayList<>(queryTerms.size());
+        for (String term : queryTerms) {
+            Postings postings = terms.get(term);
+            Cursor cursor = postings != null ? postings.cursor(n) : null;
+            if (cursor != null)
+                cursors.add(cursor);
+        }
+        if (cursors.isEmpty())
+            return EMPTY;
+        long[] entries = topK(cursors.toArray(new Cursor[0]), k).drainDescending();
+        int[] result = new int[entries.length];
+        for (int i = 0; i < entries.length; i++)
+            result[i] = (int) entries[i];
+        return result;
+    }
+
+    private LongMinHeap topK(Cursor[] cursors, int k) {
+        LongMinHeap heap = new LongMinHeap(k);
+        Cursor[] order = cursors.clone();
+        while (true) {
+            sort(order);
+            float threshold = heap.isFull() ? Float.intBitsToFloat((int) (heap.peek() >>> 32)) : 0;
+            float upper = 0;
+            int pivot = -1;
+            for (int i = 0; i < order.length && order[i].postId != NO_MORE; i++) {
+                upper += order[i].maxScore;
+                if (!heap.isFull() || upper * BOUND_SLACK >= threshold) {
+                    pivot = i;
+                    break;
+                }
+            }
+            if (pivot < 0)
+                return heap;
+            int postId = order[pivot].postId;
+            while (pivot + 1 < order.length && order[pivot + 1].postId == postId)
+                pivot++;
+            if (heap.isFull()) {
+                float bound = 0;
+                int end = NO_MORE;
+                for (int i = 0; i <= pivot; i++) {
+                    int b = order[i].seek(postId);
+                    bound += order[i].blockScore(b);
+                    end = Math.min(end, order[i].blockEnd(b));
+                }
+                if (bound * BOUND_SLACK < threshold) {
+                    int target = end == NO_MORE ? NO_MORE : end + 1;
+                    if (pivot + 1 < order.length)
+                        target = Math.min(target, order[pivot + 1].postId);
+                    for (int i = 0; i <= pivot; i++)
+                        order[i].advance(target);
+                    continue;
+                }
+            }
+            if (order[0].postId != postId) {
+                for (int i = 0; order[i].postId < postId; i++)
+                    order[i].advance(postId);
+                continue;
+            }
+            float score = 0;
+            for (Cursor cursor : cursors)
+                if (cursor.postId == postId)
+                    score += cursor.score();
+            if (!deleted.contains(postId))
+                heap.offer((long) Float.floatToIntBits(score) << 32 | postId);
+            for (int i = 0; i <= pivot; i++)
+                order[i].next();
+        }
+    }
+
+    private static void sort(Cursor[] cursors) {
+        for (int i = 1; i < cursors.length; i++) {
+            Cursor cursor = cursors[i];
+            int j = i;
+            for (; j > 0 && cursors[j - 1].postId > cursor.postId; j--)
+                cursors[j] = cursors[j - 1];
+            cursors[j] = cursor;
+        }
+    }
+
+    public void clear() {
+        terms.clear();
+        synchronized (documents) {
+            documents.clear();
+        }
+        deleted.clear();
+    }
+
+    public int getTermCount() {
+        return terms.size();
+    }
+
+    public int getDocumentCount() {
+        synchronized (documents) {
+            return documents.size();
+        }
+    }
+
+    public long getCompressedBytes() {
+        long bytes = 0;
+        for (Postings postings : terms.values())
+            bytes += postings.getCompressedBytes();
+        return bytes;
+    }
+
+    private static void tokenize(String text, Map<String, Integer> frequencies) {
+        if (text == null)
+            return;
+        forEachToken(text, token -> frequencies.merge(token, 1, Integer::sum));
+    }
+
+    private static void tokenize(String text, Set<String> tokens) {
+        if (text == null)
+            return;
+        forEachToken(text, tokens::add);
+    }
+
+    private static void forEachToken(String text, Consumer<String> action) {
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); ) {
+            int c = text.codePointAt(i);
+            i += Character.charCount(c);
+            if (Character.isIdeographic(c)) {
+                emit(token, action);
+                action.accept(new String(Character.toChars(c)));
+            } else if (Character.isLetterOrDigit(c)) {
+                if (token.length() < MAX_TOKEN_LENGTH)
+                    token.appendCodePoint(Character.toLowerCase(c));
+            } else
+                emit(token, action);
+        }
+        emit(token, action);
+    }
+
+    private static void emit(StringBuilder token, Consumer<String> action) {
+        if (token.length() > 1)
+            action.accept(token.toString());
+        token.setLength(0);
+    }
+
+    static final class Postings {
+        private Block[] blocks = NO_BLOCKS;
+        private int count;
+        private long bytes;
+        private int[] tailPostIds = EMPTY;
+        private int[] tailFrequencies = EMPTY;
+        private int tailSize;
+
+        synchronized void add(int postId, int frequency) {
+            if (tailSize == tailPostIds.length) {
+                int capacity = Math.max(4, tailSize * 2);
+                tailPostIds = Arrays.copyOf(tailPostIds, capacity);
+                tailFrequencies = Arrays.copyOf(tailFrequencies, capacity);
+            }
+            tailPostIds[tailSize] = postId;
+            tailFrequencies[tailSize++] = frequency;
+            if (tailSize >= TAIL_LIMIT)
+                compact();
+        }
+
+        synchronized void compact() {
+            if (tailSize == 0)
+                return;
+            long[] tail = new long[tailSize];
+            for (int i = 0; i < tailSize; i++)
+                tail[i] = entry(tailPostIds[i], tailFrequencies[i]);
+            Arrays.sort(tail);
+            tail = merge(EMPTY_ENTRIES, tail, 0, tail.length);
+            tailPostIds = EMPTY;
+            tailFrequencies = EMPTY;
+            tailSize = 0;
+            ArrayList<Block> merged = new ArrayList<>(blocks.length + 1);
+            int from = 0;
+            for (int b = 0; b < blocks.length; b++) {
+                Block block = blocks[b];
+                int to = from;
+                if (b == blocks.length - 1 && block.size() < BLOCK_SIZE)
+                    to = tail.length;
+                else
+                    while (to < tail.length && postId(tail[to]) <= block.lastPostId())
+                        to++;
+                if (to == from)
+                    merged.add(block);
+                else
+                    split(merge(block.decode(), tail, from, to), merged);
+                from = to;
+            }
+            if (from < tail.length)
+                split(Arrays.copyOfRange(tail, from, tail.length), merged);
+            blocks = merged.toArray(NO_BLOCKS);
+            count = 0;
+            bytes = 0;
+            for (Block block : blocks) {
+                count += block.size();
+                bytes += block.data().length;
+            }
+        }
+
+        private static long[] merge(long[] sealed, long[] tail, int from, int to) {
+            long[] merged = new long[sealed.length + to - from];
+            int size = 0;
+            int i = 0;
+            int j = from;
+            while (i < sealed.length || j < to) {
+                long next = j == to || i < sealed.length && postId(sealed[i]) <= postId(tail[j]) ? sealed[i++] : tail[j++];
+                if (size > 0 && postId(merged[size - 1]) == postId(next))
+                    merged[size - 1] = entry(postId(next), frequency(merged[size - 1]) + frequency(next));
+                else
+                    merged[size++] = next;
+            }
+            return size == merged.length ? merged : Arrays.copyOf(merged, size);
+        }
+
+        private static void split(long[] entries, ArrayList<Block> blocks) {
+            int pieces = (entries.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            for (int piece = 0; piece < pieces; piece++)
+                blocks.add(Block.encode(entries,
+                        (int) ((long) entries.length * piece / pieces),
+                        (int) ((long) entries.length * (piece + 1) / pieces)));
+        }
+
+        synchronized Cursor cursor(int documentCount) {
+            compact();
+            if (count == 0)
+                return null;
+            float idf = (float) Math.max(0.01, Math.log(1 + (documentCount - count + 0.5) / (count + 0.5)));
+            return new Cursor(blocks, idf);
+        }
+
+        synchronized int getTailSize() {
+            return tailSize;
+        }
+
+        synchronized Block[] getBlocks() {
+            return blocks.clone();
+        }
+
+        synchronized long[] getEntries() {
+            compact();
+            long[] entries = new long[count];
+            int size = 0;
+            for (Block block : blocks) {
+                long[] decoded = block.decode();
+                System.arraycopy(decoded, 0, entries, size, decoded.length);
+                size += decoded.length;
+            }
+            return entries;
+        }
+
+        synchronized long getCompressedBytes() {
+            return bytes;
+        }
+    }
+
+    record Block(byte[] data, int size, int lastPostId, int maxFrequency) {
+        static Block encode(long[] entries, int from, int to) {
+            byte[] data = new byte[(to - from) * 10];
+            int length = 0;
+            int lastPostId = 0;
+            int maxFrequency = 0;
+            for (int i = from; i < to; i++) {
+                length = writeVarInt(data, length, postId(entries[i]) - lastPostId);
+                length = writeVarInt(data, length, frequency(entries[i]));
+                lastPostId = postId(entries[i]);
+                maxFrequency = Math.max(maxFrequency, frequency(entries[i]));
+            }
+            return new Block(Arrays.copyOf(data, length), to - from, lastPostId, maxFrequency);
+        }
+
+        long[] decode() {
+            long[] entries = new long[size];
+            int[] position = {0};
+            int postId = 0;
+            for (int i = 0; i < size; i++) {
+                postId += readVarInt(data, position);
+                entries[i] = entry(postId, readVarInt(data, position));
+            }
+            return entries;
+        }
+    }
+
+    private static final class Cursor {
+        private final Block[] blocks;
+        private final float idf;
+        private final float maxScore;
+        private final int[] postIds = new int[BLOCK_SIZE];
+        private final int[] frequencies = new int[BLOCK_SIZE];
+        private int block = -1;
+        private int position;
+        private int postId;
+
+        Cursor(Block[] blocks, float idf) {
+            this.blocks = blocks;
+            this.idf = idf;
+            int maxFrequency = 0;
+            for (Block b : blocks)
+                maxFrequency = Math.max(maxFrequency, b.maxFrequency());
+            maxScore = weight(maxFrequency, idf);
+            load(0);
+        }
+
+        void next() {
+            if (++position < blocks[block].size())
+                postId = postIds[position];
+            else
+                load(block + 1);
+        }
+
+        void advance(int target) {
+            if (postId >= target)
+                return;
+            int b = seek(target);
+            if (b != block)
+                load(b);
+            while (postId < target)
+                next();
+        }
+
+        int seek(int target) {
+            int low = Math.max(block, 0);
+            int high = blocks.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (blocks[middle].lastPostId() < target)
+                    low = middle + 1;
+                else
+                    high = middle;
+            }
+            return low;
+        }
+
+        float blockScore(int b) {
+            return b < blocks.length ? weight(blocks[b].maxFrequency(), idf) : 0;
+        }
+
+        int blockEnd(int b) {
+            return b < blocks.length ? blocks[b].lastPostId() : NO_MORE;
+        }
+
+        float score() {
+            return weight(frequencies[position], idf);
+        }
+
+        private void load(int b) {
+            block = b;
+            position = 0;
+            if (b >= blocks.length) {
+                postId = NO_MORE;
+                return;
+            }
+            Block current = blocks[b];
+            int[] offset = {0};
+            int id = 0;
+            for (int i = 0; i < current.size(); i++) {
+                id += readVarInt(current.data(), offset);
+                postIds[i] = id;
+                frequencies[i] = readVarInt(current.data(), offset);
+            }
+            postId = postIds[0];
+        }
+    }
+
+    private static float weight(int frequency, float idf) {
+        return idf * frequency * (K1 + 1) / (frequency + K1);
+    }
+
+    private static long entry(int postId, int frequency) {
+        return (long) postId << 32 | (frequency & 0xFFFFFFFFL);
+    }
+
+    private static int postId(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    private static int frequency(long entry) {
+        return (int) entry;
+    }
+
+    static int writeVarInt(byte[] data, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            data[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[offset++] = (byte) value;
+        return offset;
+    }
+
+    static int readVarInt(byte[] data, int[] position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[position[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
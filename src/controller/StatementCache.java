@@ -0,0 +1,102 @@
+package controller;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+public final class StatementCache implements AutoCloseable {
+    private final Connection connection;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public StatementCache(Connection connection, int capacity) {
+        this.connection = connection;
+        this.statements = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= capacity)
+                    return false;
+                evictions++;
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    public PreparedStatement prepare(String sql)
+            throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement != null && !statement.isClosed()) {
+            hits++;
+            return statement;
+        }
+        misses++;
+        statement = connection.prepareStatement(sql);
+        statements.put(sql, statement);
+        return statement;
+    }
+
+    public CallableStatement prepareCall(String sql)
+            throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement instanceof CallableStatement call && !call.isClosed()) {
+            hits++;
+            return call;
+        }
+        misses++;
+        CallableStatement call = connection.prepareCall(sql);
+        statements.put(sql, call);
+        return call;
+    }
+
+    public void invalidate(String sql) {
+        closeQuietly(statements.remove(sql));
+    }
+
+    @Override
+    public void close() {
+        for (PreparedStatement statement : statements.values())
+            closeQuietly(statement);
+        statements.clear();
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public int getSize() {
+        return statements.size();
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        if (statement == null)
+            return;
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
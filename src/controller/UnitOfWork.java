@@ -0,0 +1,126 @@
+package controller;
+
+import model.Credentials;
+import model.User;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Set;
+
+
+public final class UnitOfWork implements InvocationHandler {
+    private static final Set<String> READS = Set.of(
+            "userExist", "getUserId", "retrieveCredentials", "retrieveUserByName", "retrieveUserById",
+            "retrievePostById", "postNotExist", "retrieveCommentById", "retrieveMessageById", "messageNotExist"
+    );
+    private static final Set<String> WRITES = Set.of("userFollow", "userUnfollow", "userLikePost", "close");
+
+    private record Key(String method, Object arg) {
+    }
+
+    private final NovepusRepository repository;
+    private final NovepusRepository proxy;
+    private final HashMap<Key, Object> identities = new HashMap<>();
+    private long hits;
+    private long misses;
+
+    public UnitOfWork(NovepusRepository repository) {
+        this.repository = repository;
+        this.proxy = (NovepusRepository) Proxy.newProxyInstance(NovepusRepository.class.getClassLoader(),
+                new Class<?>[]{NovepusRepository.class}, this);
+    }
+
+    public NovepusRepository repository() {
+        return proxy;
+    }
+
+    public void clear() {
+        identities.clear();
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args)
+            throws Throwable {
+        if (method.getDeclaringClass() == Object.class)
+            return method.invoke(repository, args);
+        String name = method.getName();
+        if (READS.contains(name) && args != null && args.length == 1) {
+            Key key = new Key(name, args[0]);
+            Object value = identities.get(key);
+            if (value != null) {
+                hits++;
+                return copy(value);
+            }
+            misses++;
+            value = call(method, args);
+            if (value != null) {
+                identities.put(key, value);
+                merge(name, args[0], value);
+            }
+            return copy(value);
+        }
+        if (name.startsWith("create") || name.startsWith("set") || name.startsWith("add") || WRITES.contains(name)) {
+            try {
+                return call(method, args);
+            } finally {
+                identities.clear();
+            }
+        }
+        return call(method, args);
+    }
+
+    private Object call(Method method, Object[] args)
+            throws Throwable {
+        try {
+            return method.invoke(repository, args);
+        } catch (InvocationTargetException invocationTargetException) {
+            throw invocationTargetException.getCause();
+        }
+    }
+
+    private void merge(String name, Object arg, Object value) {
+        switch (name) {
+            case "retrieveUserByName", "retrieveUserById" -> {
+                User user = (User) value;
+                identities.putIfAbsent(new Key("retrieveUserByName", user.userName()), user);
+                identities.putIfAbsent(new Key("retrieveUserById", user.userId()), user);
+                rememberUser(user.userName(), user.userId());
+            }
+            case "retrieveCredentials" -> {
+                Credentials credentials = (Credentials) value;
+                rememberUser(credentials.userName(), credentials.userId());
+            }
+            case "getUserId" -> identities.putIfAbsent(new Key("userExist", arg), (Integer) value != 0);
+            case "retrievePostById" -> identities.putIfAbsent(new Key("postNotExist", arg), false);
+            case "retrieveMessageById" -> identities.putIfAbsent(new Key("messageNotExist", arg), false);
+            default -> {
+            }
+        }
+    }
+
+    private void rememberUser(String userName, int userId) {
+        identities.putIfAbsent(new Key("getUserId", userName), userId);
+        identities.putIfAbsent(new Key("userExist", userName), true);
+    }
+
+    private static Object copy(Object value) {
+        return value instanceof ArrayList<?> list ? new ArrayList<>(list) : value;
+    }
+
+    public long getHitCount() {
+        return hits;
+    }
+
+    public long getMissCount() {
+        return misses;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("UnitOfWork[%d repeated reads served, %d loaded]", hits, misses);
+    }
+}
@@ -0,0 +1,29 @@
+package controller;
+
+import model.User;
+import view.PostView;
+import view.UserView;
+
+import java.sql.SQLException;
+
+
+public final class ViewPrefetcher {
+    private ViewPrefetcher() {
+    }
+
+    public static PostView prefetchPost(NovepusRepository repository, int postId)
+            throws SQLException {
+        return new PostView(repository.retrievePostById(postId),
+                repository.getPostLikes(postId),
+                repository.getPostComments(postId));
+    }
+
+    public static UserView prefetchUser(NovepusRepository repository, User user) {
+        return new UserView(user, repository.getLabelsByIds(user.interestIdList()));
+    }
+
+    public static UserView prefetchUser(NovepusRepository repository, String userName)
+            throws SQLException {
+        return prefetchUser(repository, repository.retrieveUserByName(userName));
+    }
+}
@@ -0,0 +1,26 @@
+package controller.data;
+
+public enum AuditLogData {
+    FILE_NAME("SQL_log.txt"),
+    CAPACITY("65536"),
+    BATCH_SIZE("512"),
+    FLUSH_INTERVAL_MILLIS("200"),
+    MAX_FILE_BYTES("16777216"),
+    MAX_FILES("5"),
+    COMPRESS("true"),
+    OVERFLOW_POLICY("DROP"),
+    SAMPLE_RATE("16");
+    private final String data;
+
+    AuditLogData(String data) {
+        this.data = System.getProperty("novepus.log." + name().toLowerCase(), data);
+    }
+
+    public String getData() {
+        return data;
+    }
+
+    public int getInt() {
+        return Integer.parseInt(data);
+    }
+}
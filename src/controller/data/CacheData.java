@@ -0,0 +1,18 @@
+package controller.data;
+
+public enum CacheData {
+    USER_CAPACITY(10000),
+    POST_CAPACITY(20000),
+    COMMENT_CAPACITY(20000),
+    MESSAGE_CAPACITY(20000),
+    TTL_SECONDS(300);
+    private final int data;
+
+    CacheData(int data) {
+        this.data = Integer.getInteger("novepus.cache." + name().toLowerCase(), data);
+    }
+
+    public int getData() {
+        return data;
+    }
+}
@@ -0,0 +1,17 @@
+package controller.data;
+
+public enum ImportData {
+    CHUNK_SIZE(1000),
+    THREADS(4),
+    QUEUED_CHUNKS(8),
+    REPORT_INTERVAL_MILLIS(2000);
+    private final int data;
+
+    ImportData(int data) {
+        this.data = Integer.getInteger("novepus.import." + name().toLowerCase(), data);
+    }
+
+    public int getData() {
+        return data;
+    }
+}
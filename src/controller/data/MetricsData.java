@@ -0,0 +1,26 @@
+package controller.data;
+
+public enum MetricsData {
+    ENABLED("true"),
+    ADMIN_USER("Admin"),
+    MAX_FINGERPRINTS("2000"),
+    REPORT_LIMIT("20"),
+    JMX_NAME("novepus:type=QueryStats"),
+    TRACK_INTERACTIONS("false"),
+    REPEAT_THRESHOLD("1"),
+    N_PLUS_ONE_THRESHOLD("5"),
+    INTERACTION_REPORT_FILE("interaction_report.txt");
+    private final String data;
+
+    MetricsData(String data) {
+        this.data = System.getProperty("novepus.metrics." + name().toLowerCase(), data);
+    }
+
+    public String getData() {
+        return data;
+    }
+
+    public int getInt() {
+        return Integer.parseInt(data);
+    }
+}
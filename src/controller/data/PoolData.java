@@ -0,0 +1,21 @@
+package controller.data;
+
+public enum PoolData {
+    MIN_SIZE(2),
+    MAX_SIZE(16),
+    ACQUIRE_TIMEOUT_MILLIS(5000),
+    IDLE_TIMEOUT_MILLIS(300000),
+    VALIDATION_TIMEOUT_SECONDS(2),
+    VALIDATE_AFTER_IDLE_MILLIS(30000),
+    STATEMENT_CACHE_SIZE(64),
+    FETCH_SIZE(1000);
+    private final int data;
+
+    PoolData(int data) {
+        this.data = Integer.getInteger("novepus.pool." + name().toLowerCase(), data);
+    }
+
+    public int getData() {
+        return data;
+    }
+}
@@ -0,0 +1,16 @@
+package controller.data;
+
+public enum PresenceData {
+    TIMEOUT_SECONDS(900),
+    FLUSH_INTERVAL_MILLIS(1000),
+    BATCH_SIZE(256);
+    private final int data;
+
+    PresenceData(int data) {
+        this.data = Integer.getInteger("novepus.presence." + name().toLowerCase(), data);
+    }
+
+    public int getData() {
+        return data;
+    }
+}
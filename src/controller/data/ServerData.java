@@ -0,0 +1,19 @@
+package controller.data;
+
+public enum ServerData {
+    PORT(2411),
+    BACKLOG(128),
+    MAX_CONNECTIONS(500),
+    IDLE_TIMEOUT_SECONDS(900),
+    DRAIN_SECONDS(30),
+    STACK_SIZE_KB(256);
+    private final int data;
+
+    ServerData(int data) {
+        this.data = Integer.getInteger("novepus.server." + name().toLowerCase(), data);
+    }
+
+    public int getData() {
+        return data;
+    }
+}
@@ -0,0 +1,24 @@
+package controller.data;
+
+public enum SimulatorData {
+    BACKEND("memory"),
+    USERS("1000"),
+    SESSIONS_PER_USER("3"),
+    FLOWS_PER_SESSION("10"),
+    THINK_MILLIS("0"),
+    SEED_POSTS("1000"),
+    STACK_SIZE_KB("256");
+    private final String data;
+
+    SimulatorData(String data) {
+        this.data = System.getProperty("novepus.sim." + name().toLowerCase(), data);
+    }
+
+    public String getData() {
+        return data;
+    }
+
+    public int getInt() {
+        return Integer.parseInt(data);
+    }
+}
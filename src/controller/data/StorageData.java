@@ -0,0 +1,15 @@
+package controller.data;
+
+public enum StorageData {
+    BACKEND("oracle"),
+    SNAPSHOT_FILE("");
+    private final String data;
+
+    StorageData(String data) {
+        this.data = System.getProperty("novepus.storage." + name().toLowerCase(), data);
+    }
+
+    public String getData() {
+        return data;
+    }
+}
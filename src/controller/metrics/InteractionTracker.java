@@ -0,0 +1,221 @@
+package controller.metrics;
+
+import controller.data.MetricsData;
+import view.PromptListener;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+
+public final class InteractionTracker implements PromptListener {
+    private static final int MAX_CALL_SITES = 4;
+    private static final int MAX_FINDINGS = 2000;
+    private static final String[] SKIPPED_FRAMES = {
+            "controller.metrics.", "controller.DBController", "controller.OracleRepository",
+            "controller.InMemoryRepository", "java.", "jdk.", "com.sun.", "view."
+    };
+    private static final StackWalker WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    private static final InteractionTracker GLOBAL = new InteractionTracker();
+
+    private static final class Usage {
+        private int count;
+        private final HashSet<Integer> distinctArgs = new HashSet<>();
+        private final LinkedHashSet<String> callSites = new LinkedHashSet<>();
+    }
+
+    private static final class Scope {
+        private final String action;
+        private final long start = System.nanoTime();
+        private final HashMap<String, Usage> usages = new HashMap<>();
+        private int calls;
+
+        Scope(String action) {
+            this.action = action;
+        }
+    }
+
+    private static final class Finding {
+        private final LongAdder occurrences = new LongAdder();
+        private final AtomicInteger worstCount = new AtomicInteger();
+        private final Set<String> callSites = ConcurrentHashMap.newKeySet();
+    }
+
+    private final boolean enabled;
+    private final int repeatThreshold;
+    private final int nPlusOneThreshold;
+    private final Path reportFile;
+    private final ThreadLocal<Scope> scope = new ThreadLocal<>();
+    private final ConcurrentHashMap<String, Finding> findings = new ConcurrentHashMap<>();
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+    private BufferedWriter writer;
+
+    public InteractionTracker() {
+        this(Boolean.parseBoolean(MetricsData.TRACK_INTERACTIONS.getData()),
+                MetricsData.REPEAT_THRESHOLD.getInt(), MetricsData.N_PLUS_ONE_THRESHOLD.getInt(),
+                MetricsData.INTERACTION_REPORT_FILE.getData());
+    }
+
+    public InteractionTracker(boolean enabled, int repeatThreshold, int nPlusOneThreshold, String reportFile) {
+        this.enabled = enabled;
+        this.repeatThreshold = Math.max(1, repeatThreshold);
+        this.nPlusOneThreshold = Math.max(2, nPlusOneThreshold);
+        this.reportFile = reportFile.isBlank() ? null : Paths.get(reportFile);
+    }
+
+    public static InteractionTracker global() {
+        return GLOBAL;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void afterPrompt(String input) {
+        if (!enabled)
+            return;
+        String caller = WALKER.walk(frames -> frames
+                .filter(f -> !skipped(f.getClassName())
+                        && !PromptListener.class.isAssignableFrom(f.getDeclaringClass()))
+                .findFirst()
+                .map(f -> simpleName(f.getClassName()) + "." + f.getMethodName())
+                .orElse("?"));
+        if (input.length() > 24)
+            input = input.substring(0, 24) + "...";
+        scope.set(new Scope(caller + " '" + input + "'"));
+    }
+
+    @Override
+    public void beforePrompt() {
+        if (!enabled)
+            return;
+        Scope current = scope.get();
+        scope.remove();
+        if (current != null && current.calls > 1)
+            analyze(current);
+    }
+
+    public void record(String key, int argsHash) {
+        if (!enabled)
+            return;
+        Scope current = scope.get();
+        if (current == null)
+            return;
+        current.calls++;
+        Usage usage = current.usages.computeIfAbsent(key, k -> new Usage());
+        usage.count++;
+        usage.distinctArgs.add(argsHash);
+        if (usage.callSites.size() < MAX_CALL_SITES)
+            callSite().ifPresent(usage.callSites::add);
+    }
+
+    private static Optional<String> callSite() {
+        return WALKER.walk(frames -> frames
+                .filter(f -> !skipped(f.getClassName()))
+                .findFirst()
+                .map(f -> simpleName(f.getClassName()) + "." + f.getMethodName() + ":" + f.getLineNumber()));
+    }
+
+    private static boolean skipped(String className) {
+        if (className.contains("$Proxy"))
+            return true;
+        for (String prefix : SKIPPED_FRAMES)
+            if (className.startsWith(prefix))
+                return true;
+        return false;
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    private void analyze(Scope current) {
+        ArrayList<String> lines = new ArrayList<>();
+        current.usages.entrySet().stream()
+                .sorted(Comparator.comparingInt((Map.Entry<String, Usage> e) -> e.getValue().count).reversed())
+                .forEach(e -> {
+                    Usage usage = e.getValue();
+                    int distinct = usage.distinctArgs.size();
+                    String kind;
+                    if (usage.count - distinct >= repeatThreshold)
+                        kind = "REPEATED";
+                    else if (distinct >= nPlusOneThreshold)
+                        kind = "N+1";
+                    else
+                        return;
+                    lines.add(String.format("    %-8s x%-4d (%d distinct) %s%n             at %s",
+                            kind, usage.count, distinct, e.getKey(), String.join(", ", usage.callSites)));
+                    remember(current.action + " | " + kind + " " + e.getKey(), usage);
+                });
+        if (lines.isEmpty())
+            return;
+        write(String.format("%s %s: %d calls in %.3fms%n%s%n",
+                formatNow(), current.action, current.calls, (System.nanoTime() - current.start) / 1e6,
+                String.join(System.lineSeparator(), lines)));
+    }
+
+    private void remember(String key, Usage usage) {
+        Finding finding = findings.get(key);
+        if (finding == null) {
+            if (findings.size() >= MAX_FINDINGS)
+                return;
+            finding = findings.computeIfAbsent(key, k -> new Finding());
+        }
+        finding.occurrences.increment();
+        finding.worstCount.accumulateAndGet(usage.count, Math::max);
+        finding.callSites.addAll(usage.callSites);
+    }
+
+    private synchronized String formatNow() {
+        return dateFormat.format(new Date());
+    }
+
+    private synchronized void write(String report) {
+        if (reportFile == null)
+            return;
+        try {
+            if (writer == null)
+                writer = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            writer.write(report);
+            writer.flush();
+        } catch (IOException ioException) {
+            writer = null;
+        }
+    }
+
+    public String report(int limit) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%8s %6s  %s%n", "SEEN", "WORST", "INTERACTION | PATTERN"));
+        findings.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Finding> e) ->
+                        e.getValue().occurrences.sum() * e.getValue().worstCount.get()).reversed())
+                .limit(limit)
+                .forEach(e -> report.append(String.format("%8d %6d  %s%n%16s at %s%n",
+                        e.getValue().occurrences.sum(), e.getValue().worstCount.get(), e.getKey(), "",
+                        String.join(", ", e.getValue().callSites))));
+        return report.toString();
+    }
+
+    public void reset() {
+        findings.clear();
+    }
+}
@@ -0,0 +1,245 @@
+package controller.metrics;
+
+import controller.NovepusRepository;
+import controller.data.MetricsData;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+
+public final class QueryStats implements QueryStatsMXBean {
+    private static final String OTHER = "<other>";
+    private static final Pattern IN_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+    private static final QueryStats GLOBAL = new QueryStats().register(MetricsData.JMX_NAME.getData());
+
+    private static final class Entry {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        void reset() {
+            latency.reset();
+            rows.reset();
+            errors.reset();
+        }
+    }
+
+    private final InteractionTracker tracker = InteractionTracker.global();
+    private final boolean enabled;
+    private final int maxFingerprints;
+    private final ConcurrentHashMap<String, String> fingerprints = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Entry> statements = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Entry> methods = new ConcurrentHashMap<>();
+
+    public QueryStats() {
+        this(Boolean.parseBoolean(MetricsData.ENABLED.getData()), MetricsData.MAX_FINGERPRINTS.getInt());
+    }
+
+    public QueryStats(boolean enabled, int maxFingerprints) {
+        this.enabled = enabled;
+        this.maxFingerprints = Math.max(1, maxFingerprints);
+    }
+
+    public static String fingerprint(String sql) {
+        StringBuilder normalized = new StringBuilder(sql.length());
+        boolean space = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = !normalized.isEmpty();
+                continue;
+            }
+            if (space) {
+                normalized.append(' ');
+                space = false;
+            }
+            if (c == '\'') {
+                i++;
+                while (i < sql.length() && !(sql.charAt(i) == '\''
+                        && (i + 1 >= sql.length() || sql.charAt(i + 1) != '\'')))
+                    i += sql.charAt(i) == '\'' ? 2 : 1;
+                normalized.append('?');
+            } else if (c == '"') {
+                int end = sql.indexOf('"', i + 1);
+                end = end < 0 ? sql.length() - 1 : end;
+                normalized.append(sql, i, end + 1);
+                i = end;
+            } else if (Character.isDigit(c) && (normalized.isEmpty()
+                    || !Character.isLetterOrDigit(normalized.charAt(normalized.length() - 1))
+                    && normalized.charAt(normalized.length() - 1) != '_')) {
+                while (i + 1 < sql.length() && (Character.isDigit(sql.charAt(i + 1)) || sql.charAt(i + 1) == '.'))
+                    i++;
+                normalized.append('?');
+            } else
+                normalized.append(c);
+        }
+        return IN_LIST.matcher(normalized).replaceAll("?,...");
+    }
+
+    public void recordStatement(String sql, Object[] params, long nanos, long rows, boolean failed) {
+        if (!enabled)
+            return;
+        String fingerprint = fingerprints.get(sql);
+        if (fingerprint == null) {
+            fingerprint = fingerprint(sql);
+            if (fingerprints.size() < maxFingerprints)
+                fingerprints.put(sql, fingerprint);
+        }
+        record(statements, fingerprint, nanos, rows, failed);
+        tracker.record(fingerprint, Arrays.deepHashCode(params));
+    }
+
+    public void recordMethod(String method, long nanos, boolean failed) {
+        if (enabled)
+            record(methods, method, nanos, 0, failed);
+    }
+
+    private void record(ConcurrentHashMap<String, Entry> entries, String key, long nanos, long rows, boolean failed) {
+        Entry entry = entries.get(key);
+        if (entry == null)
+            entry = entries.size() < maxFingerprints
+                    ? entries.computeIfAbsent(key, k -> new Entry())
+                    : entries.computeIfAbsent(OTHER, k -> new Entry());
+        entry.latency.record(nanos);
+        entry.rows.add(rows);
+        if (failed)
+            entry.errors.increment();
+    }
+
+    public NovepusRepository instrument(NovepusRepository repository) {
+        if (!enabled)
+            return repository;
+        InvocationHandler handler = (proxy, method, args) -> invoke(repository, method, args);
+        return (NovepusRepository) Proxy.newProxyInstance(NovepusRepository.class.getClassLoader(),
+                new Class<?>[]{NovepusRepository.class}, handler);
+    }
+
+    private Object invoke(NovepusRepository repository, Method method, Object[] args)
+            throws Throwable {
+        if (method.getDeclaringClass() == Object.class)
+            return method.invoke(repository, args);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = method.invoke(repository, args);
+            failed = false;
+            return result;
+        } catch (InvocationTargetException invocationTargetException) {
+            throw invocationTargetException.getCause();
+        } finally {
+            recordMethod(method.getName(), System.nanoTime() - start, failed);
+            tracker.record("repository." + method.getName(), Arrays.deepHashCode(args));
+        }
+    }
+
+    public static QueryStats global() {
+        return GLOBAL;
+    }
+
+    public QueryStats register(String name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(name));
+        } catch (JMException | SecurityException ignored) {
+        }
+        return this;
+    }
+
+    @Override
+    public long getStatementCount() {
+        long count = 0;
+        for (Entry entry : statements.values())
+            count += entry.latency.getCount();
+        return count;
+    }
+
+    @Override
+    public long getStatementErrorCount() {
+        long count = 0;
+        for (Entry entry : statements.values())
+            count += entry.errors.sum();
+        return count;
+    }
+
+    @Override
+    public long getStatementTimeMillis() {
+        double nanos = 0;
+        for (Entry entry : statements.values())
+            nanos += entry.latency.getMeanNanos() * entry.latency.getCount();
+        return (long) (nanos / 1e6);
+    }
+
+    @Override
+    public int getFingerprintCount() {
+        return statements.size();
+    }
+
+    @Override
+    public String[] getTopFingerprints() {
+        return lines(statements, MetricsData.REPORT_LIMIT.getInt(), true).toArray(new String[0]);
+    }
+
+    @Override
+    public String[] getMethodLatencies() {
+        return lines(methods, MetricsData.REPORT_LIMIT.getInt(), false).toArray(new String[0]);
+    }
+
+    @Override
+    public String getReport() {
+        return report(MetricsData.REPORT_LIMIT.getInt());
+    }
+
+    public String report(int limit) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%d statements, %d errors, %d ms total in %d fingerprints%n",
+                getStatementCount(), getStatementErrorCount(), getStatementTimeMillis(), getFingerprintCount()));
+        report.append(String.format("%-28s %8s %6s %10s %9s %9s %9s%n",
+                "METHOD", "CALLS", "ERRORS", "TOTAL(ms)", "P50(ms)", "P99(ms)", "MAX(ms)"));
+        for (String line : lines(methods, limit, false))
+            report.append(line).append(System.lineSeparator());
+        report.append(String.format("%8s %8s %6s %10s %9s %9s %9s  %s%n",
+                "CALLS", "ROWS", "ERRORS", "TOTAL(ms)", "P50(ms)", "P99(ms)", "MAX(ms)", "FINGERPRINT"));
+        for (String line : lines(statements, limit, true))
+            report.append(line).append(System.lineSeparator());
+        return report.toString();
+    }
+
+    private static ArrayList<String> lines(Map<String, Entry> entries, int limit, boolean statement) {
+        ArrayList<Map.Entry<String, Entry>> sorted = new ArrayList<>(entries.entrySet());
+        sorted.sort(Comparator.comparingDouble((Map.Entry<String, Entry> e) ->
+                e.getValue().latency.getMeanNanos() * e.getValue().latency.getCount()).reversed());
+        ArrayList<String> lines = new ArrayList<>();
+        for (Map.Entry<String, Entry> e : sorted.subList(0, Math.min(limit, sorted.size()))) {
+            LatencyHistogram latency = e.getValue().latency;
+            double total = latency.getMeanNanos() * latency.getCount() / 1e6;
+            if (statement)
+                lines.add(String.format("%8d %8d %6d %10.1f %9.3f %9.3f %9.3f  %s",
+                        latency.getCount(), e.getValue().rows.sum(), e.getValue().errors.sum(), total,
+                        latency.getPercentileNanos(50) / 1e6, latency.getPercentileNanos(99) / 1e6,
+                        latency.getMaxNanos() / 1e6, e.getKey()));
+            else
+                lines.add(String.format("%-28s %8d %6d %10.1f %9.3f %9.3f %9.3f",
+                        e.getKey(), latency.getCount(), e.getValue().errors.sum(), total,
+                        latency.getPercentileNanos(50) / 1e6, latency.getPercentileNanos(99) / 1e6,
+                        latency.getMaxNanos() / 1e6));
+        }
+        return lines;
+    }
+
+    @Override
+    public void reset() {
+        statements.values().forEach(Entry::reset);
+        methods.values().forEach(Entry::reset);
+    }
+}
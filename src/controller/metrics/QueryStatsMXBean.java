@@ -0,0 +1,19 @@
+package controller.metrics;
+
+public interface QueryStatsMXBean {
+    long getStatementCount();
+
+    long getStatementErrorCount();
+
+    long getStatementTimeMillis();
+
+    int getFingerprintCount();
+
+    String[] getTopFingerprints();
+
+    String[] getMethodLatencies();
+
+    String getReport();
+
+    void reset();
+}
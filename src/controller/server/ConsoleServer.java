@@ -0,0 +1,259 @@
+package controller.server;
+
+import controller.AuthService;
+import controller.NovepusController;
+import controller.NovepusRepository;
+import view.NovepusIO;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+
+public final class ConsoleServer {
+    private final NovepusRepository repository;
+    private final AuthService auth;
+    private final ThreadFactory threadFactory;
+    private final int maxConnections;
+    private final int idleTimeoutMillis;
+    private final Semaphore permits;
+    private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final Object drained = new Object();
+    private volatile ServerSocket serverSocket;
+    private volatile boolean draining;
+
+    public ConsoleServer(NovepusRepository repository, ThreadFactory threadFactory,
+                         int maxConnections, int idleTimeoutMillis) {
+        this.repository = repository;
+        this.auth = new AuthService(repository);
+        this.threadFactory = threadFactory;
+        this.maxConnections = Math.max(1, maxConnections);
+        this.idleTimeoutMillis = Math.max(0, idleTimeoutMillis);
+        this.permits = new Semaphore(this.maxConnections);
+    }
+
+    public static ThreadFactory platformThreads(long stackSizeBytes) {
+        AtomicInteger number = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(null, r, "novepus-session-" + number.incrementAndGet(), stackSizeBytes);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public void bind(int port, int backlog)
+            throws IOException {
+        ServerSocket socket = new ServerSocket();
+        socket.setReuseAddress(true);
+        socket.bind(new InetSocketAddress(port), backlog);
+        serverSocket = socket;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public void serve()
+            throws IOException {
+        while (!draining) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException closed) {
+                if (draining)
+                    return;
+                throw closed;
+            }
+            if (draining || !permits.tryAcquire()) {
+                rejected.increment();
+                refuse(socket, draining ? "Server is shutting down." : "Server is busy, please try again later.");
+                continue;
+            }
+            accepted.increment();
+            Session session = new Session(socket);
+            sessions.add(session);
+            try {
+                threadFactory.newThread(session).start();
+            } catch (RuntimeException cannotStart) {
+                session.close();
+                release(session);
+                throw cannotStart;
+            }
+        }
+    }
+
+    public boolean shutdown(long drainMillis)
+            throws InterruptedException {
+        draining = true;
+        try {
+            if (serverSocket != null)
+                serverSocket.close();
+        } catch (IOException ignored) {
+        }
+        for (Session session : sessions)
+            session.notice(String.format("Server is shutting down, you will be disconnected in %d seconds.",
+                    TimeUnit.MILLISECONDS.toSeconds(drainMillis)));
+        awaitDrained(TimeUnit.MILLISECONDS.toNanos(drainMillis));
+        boolean clean = sessions.isEmpty();
+        for (Session session : sessions)
+            session.close();
+        awaitDrained(TimeUnit.SECONDS.toNanos(5));
+        return clean;
+    }
+
+    private void awaitDrained(long nanos)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + nanos;
+        synchronized (drained) {
+            long remaining;
+            while (!sessions.isEmpty() && (remaining = deadline - System.nanoTime()) > 0)
+                TimeUnit.NANOSECONDS.timedWait(drained, remaining);
+        }
+    }
+
+    public int getActiveSessionCount() {
+        return sessions.size();
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private static void refuse(Socket socket, String reason) {
+        try (socket) {
+            socket.setSoTimeout(1000);
+            socket.getOutputStream().write((reason + "\r\n").getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void release(Session session) {
+        if (sessions.remove(session)) {
+            permits.release();
+            synchronized (drained) {
+                drained.notifyAll();
+            }
+        }
+    }
+
+    private final class Session implements Runnable {
+        private final Socket socket;
+        private volatile PrintStream out;
+
+        Session(Socket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void run() {
+            NovepusController controller = null;
+            try {
+                socket.setSoTimeout(idleTimeoutMillis);
+                socket.setTcpNoDelay(true);
+                out = new PrintStream(new BufferedOutputStream(socket.getOutputStream()), false, StandardCharsets.UTF_8);
+                NovepusIO io = new NovepusIO(new SessionInput(socket.getInputStream(), out), out);
+                controller = new NovepusController(io, repository, auth);
+                controller.run();
+                out.println("Bye.");
+            } catch (NoSuchElementException | IOException disconnected) {
+                // client hung up, idled out or was closed by shutdown
+            } catch (SQLException sqlException) {
+                sqlException.printStackTrace();
+                notice("Connection Broken. Please reconnect later.");
+            } finally {
+                if (controller != null) {
+                    try {
+                        controller.disconnect();
+                    } catch (SQLException ignored) {
+                    }
+                }
+                if (out != null)
+                    out.flush();
+                close();
+                release(this);
+            }
+        }
+
+        void notice(String text) {
+            PrintStream stream = out;
+            if (stream == null)
+                return;
+            stream.println();
+            stream.println(text);
+            stream.flush();
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private final class SessionInput extends FilterInputStream {
+        private final PrintStream out;
+
+        SessionInput(InputStream in, PrintStream out) {
+            super(in);
+            this.out = out;
+        }
+
+        @Override
+        public int read()
+                throws IOException {
+            out.flush();
+            try {
+                return super.read();
+            } catch (SocketTimeoutException idle) {
+                idleOut();
+                throw idle;
+            }
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length)
+                throws IOException {
+            out.flush();
+            try {
+                return super.read(buffer, offset, length);
+            } catch (SocketTimeoutException idle) {
+                idleOut();
+                throw idle;
+            }
+        }
+
+        private void idleOut() {
+            out.println();
+            out.printf("Idle for more than %d seconds, disconnecting.%n", TimeUnit.MILLISECONDS.toSeconds(idleTimeoutMillis));
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package controller.simulation;
+
+import controller.NovepusController;
+import controller.NovepusRepository;
+import view.NovepusIO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+final class VirtualUser implements Runnable {
+    private static final Pattern POST_ID = Pattern.compile("pid=(\\d+)");
+    private static final String PAGER_PROMPT = "'n' for next page";
+    private static final String USER_MENU = "User Center";
+    private static final String MAIN_MENU = "Main Menu";
+    private static final String FORUM_MENU = "World Forum";
+    private static final String[] ERRORS = {
+            "Unrecognized Command", "does not exist", "Incorrect Password", "has been taken", "Cannot"
+    };
+    private static final String[] WORDS = {
+            "database", "oracle", "java", "novepus", "forum", "polyu", "project", "query", "index", "cache"
+    };
+
+    private record Step(String action, String expect, Function<String, String> line, String fallback,
+                        boolean always) {
+    }
+
+    private final WorkloadSimulator simulator;
+    private final NovepusRepository repository;
+    private final String userName;
+    private final SplittableRandom random;
+    private final int sessions;
+    private final int flowsPerSession;
+    private final long thinkMillis;
+    private final ArrayDeque<Step> steps = new ArrayDeque<>();
+    private final ByteArrayOutputStream screen = new ByteArrayOutputStream();
+    private final StringBuilder pages = new StringBuilder();
+    private boolean registered;
+    private boolean aborted;
+    private String pendingAction;
+    private long sentAt;
+
+    VirtualUser(WorkloadSimulator simulator, NovepusRepository repository, String userName, long seed,
+                int sessions, int flowsPerSession, long thinkMillis) {
+        this.simulator = simulator;
+        this.repository = repository;
+        this.userName = userName;
+        this.random = new SplittableRandom(seed);
+        this.sessions = sessions;
+        this.flowsPerSession = flowsPerSession;
+        this.thinkMillis = thinkMillis;
+    }
+
+    @Override
+    public void run() {
+        for (int session = 0; session < sessions && !Thread.currentThread().isInterrupted(); session++) {
+            planSession();
+            NovepusIO io = new NovepusIO(new ScriptInput(), new PrintStream(screen, false, StandardCharsets.UTF_8));
+            try {
+                new NovepusController(io, repository, simulator.getAuthService()).run();
+                finishPending(drainScreen());
+                simulator.recordSession(steps.isEmpty());
+            } catch (NoSuchElementException scriptEnded) {
+                finishPending(drainScreen());
+                simulator.recordSession(false);
+            } catch (Exception exception) {
+                if (pendingAction != null)
+                    simulator.record(pendingAction, System.nanoTime() - sentAt, true);
+                pendingAction = null;
+                simulator.recordFailure(exception);
+                simulator.recordSession(false);
+            }
+            steps.clear();
+            pages.setLength(0);
+            aborted = false;
+        }
+    }
+
+    private void planSession() {
+        String password = "pw" + (userName.hashCode() & 0xFFFF);
+        if (!registered) {
+            step("register", MAIN_MENU, "r");
+            step("register.username", "Input your Username", userName);
+            step("register.password", "Input your Password", password);
+            step("register.confirm", "Confirm your Password", password);
+            step("register.email", "Your email", userName + "@novepus.local");
+        }
+        step("login", MAIN_MENU, "l");
+        step("login.username", "Input your Username", userName);
+        step("login.password", "Input Password", password);
+        for (int i = 0; i < flowsPerSession; i++)
+            planFlow();
+        step("logout", USER_MENU, "q");
+        step("quit", MAIN_MENU, "q");
+    }
+
+    private void planFlow() {
+        int dice = random.nextInt(100);
+        if (dice < 25) {
+            step("forum", USER_MENU, "w");
+            step("forum.recent", FORUM_MENU, "v");
+            back("forum.back", FORUM_MENU);
+        } else if (dice < 35) {
+            step("forum", USER_MENU, "w");
+            step("forum.search", FORUM_MENU, "f");
+            step("forum.search.query", "Input the words to search", word());
+            back("forum.back", FORUM_MENU);
+        } else if (dice < 45) {
+            step("forum", USER_MENU, "w");
+            step("forum.recommend", FORUM_MENU, "r");
+            back("forum.back", FORUM_MENU);
+        } else if (dice < 65) {
+            step("forum", USER_MENU, "w");
+            step("post.select", FORUM_MENU, "s");
+            steps.add(new Step("post.open", "Input the 'pid'", this::pickPost, "~", false));
+            step("post.like", "Action on Post", "l");
+            step("post.comment", "Action on Post", "c");
+            step("post.comment.text", "You may make comment", sentence());
+            step("post.comment.end", "[continue]", "");
+            step("post.back", "Action on Post", "q");
+            back("forum.back", FORUM_MENU);
+        } else if (dice < 75) {
+            step("mailbox", USER_MENU, "m");
+            step("mail.compose", "Mail Box", "p");
+            steps.add(new Step("mail.receiver", "Input the username of the receiver",
+                    screen -> simulator.randomUserName(random), "~", false));
+            steps.add(new Step("mail.text", "You may input your Message content now",
+                    screen -> sentence(), "~", false));
+            step("mail.send", "[continue]", "");
+            back("mailbox.back", "Mail Box");
+        } else if (dice < 85) {
+            step("mailbox", USER_MENU, "m");
+            back("mailbox.back", "Mail Box");
+        } else if (dice < 93) {
+            step("social", USER_MENU, "s");
+            step("follow", "Social Option", "f");
+            steps.add(new Step("follow.target", "Input the username of the user you want to follow",
+                    screen -> simulator.randomUserName(random), "~", false));
+            step("follow.confirm", "Are you sure to follow", "w", "~");
+            back("social.back", "Social Option");
+        } else {
+            step("posts", USER_MENU, "p");
+            step("post.new", "Post Management", "p");
+            step("post.title", "Input the title", "About " + word());
+            step("post.content", "You may input the content now", sentence());
+            step("post.content.end", "[continue]", "");
+            step("post.confirm", "'w' to confirm", "w");
+            step("post.label", "You may add several label", word());
+            step("post.label.end", "added!", "~");
+            back("posts.back", "Post Management");
+        }
+    }
+
+    private void step(String action, String expect, String line) {
+        step(action, expect, line, null);
+    }
+
+    private void step(String action, String expect, String line, String fallback) {
+        steps.add(new Step(action, expect, screen -> line, fallback, false));
+    }
+
+    private void back(String action, String expect) {
+        steps.add(new Step(action, expect, screen -> "q", null, true));
+    }
+
+    private String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private String sentence() {
+        return word() + " " + word() + " " + word() + " from " + userName;
+    }
+
+    private String pickPost(String screen) {
+        Matcher matcher = POST_ID.matcher(screen);
+        List<String> postIds = new ArrayList<>();
+        while (matcher.find())
+            postIds.add(matcher.group(1));
+        return postIds.isEmpty() ? null : postIds.get(random.nextInt(postIds.size()));
+    }
+
+    private String drainScreen() {
+        String text = screen.toString(StandardCharsets.UTF_8);
+        screen.reset();
+        return text;
+    }
+
+    private void finishPending(String text) {
+        if (pendingAction == null)
+            return;
+        boolean failed = false;
+        for (String error : ERRORS)
+            failed |= text.contains(error);
+        simulator.record(pendingAction, System.nanoTime() - sentAt, failed);
+        if (pendingAction.equals("register.email") && !failed) {
+            registered = true;
+            simulator.addUserName(userName);
+        }
+        pendingAction = null;
+    }
+
+    private String nextLine() {
+        String text = drainScreen();
+        if (pendingAction != null && text.contains(PAGER_PROMPT)) {
+            pages.append(text);
+            return "s";
+        }
+        if (!pages.isEmpty()) {
+            text = pages.append(text).toString();
+            pages.setLength(0);
+        }
+        finishPending(text);
+        Step step;
+        while ((step = steps.poll()) != null) {
+            if (aborted && !step.always())
+                continue;
+            String line = text.contains(step.expect()) ? step.line().apply(text) : null;
+            if (line == null) {
+                if (step.fallback() == null)
+                    return null;
+                aborted = true;
+                line = step.fallback();
+            }
+            if (step.always())
+                aborted = false;
+            think();
+            pendingAction = step.action();
+            sentAt = System.nanoTime();
+            return line;
+        }
+        return null;
+    }
+
+    private void think() {
+        if (thinkMillis <= 0)
+            return;
+        try {
+            TimeUnit.MICROSECONDS.sleep((long) (-Math.log(1 - random.nextDouble()) * thinkMillis * 1000));
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class ScriptInput extends InputStream {
+        private byte[] line;
+        private int position;
+        private boolean ended;
+
+        private boolean fill() {
+            if (line != null && position < line.length)
+                return true;
+            if (ended)
+                return false;
+            String next = nextLine();
+            if (next == null) {
+                ended = true;
+                return false;
+            }
+            line = (next + "\n").getBytes(StandardCharsets.UTF_8);
+            position = 0;
+            return true;
+        }
+
+        @Override
+        public int read() {
+            return fill() ? line[position++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0)
+                return 0;
+            if (!fill())
+                return -1;
+            int count = Math.min(length, line.length - position);
+            System.arraycopy(line, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+    }
+}
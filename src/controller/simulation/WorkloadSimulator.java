@@ -0,0 +1,151 @@
+package controller.simulation;
+
+import controller.AuthService;
+import controller.NovepusRepository;
+import controller.metrics.LatencyHistogram;
+import model.Post;
+import model.User;
+
+import java.io.PrintStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+
+public final class WorkloadSimulator {
+    private static final String SEED_USER_NAME = "seed";
+
+    private final NovepusRepository repository;
+    private final AuthService auth;
+    private final ThreadFactory threadFactory;
+    private final ConcurrentHashMap<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Exception> failures = new ConcurrentLinkedQueue<>();
+    private final LongAdder sessions = new LongAdder();
+    private final LongAdder failedSessions = new LongAdder();
+    private final LongAdder actions = new LongAdder();
+    private final AtomicInteger userCount = new AtomicInteger();
+    private AtomicReferenceArray<String> userNames = new AtomicReferenceArray<>(0);
+    private long elapsedNanos;
+
+    public WorkloadSimulator(NovepusRepository repository, ThreadFactory threadFactory) {
+        this.repository = repository;
+        this.auth = new AuthService(repository);
+        this.threadFactory = threadFactory;
+    }
+
+    public static ThreadFactory platformThreads(long stackSizeBytes) {
+        AtomicInteger number = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(null, r, "novepus-vu-" + number.incrementAndGet(), stackSizeBytes);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public void seed(int posts)
+            throws SQLException {
+        if (posts <= 0)
+            return;
+        if (!repository.userExist(SEED_USER_NAME))
+            repository.createUser(new User(SEED_USER_NAME, "seed", ""));
+        SplittableRandom random = new SplittableRandom(2411);
+        String[] labels = {"java", "oracle", "database", "forum", "polyu"};
+        for (int i = 0; i < posts; i++)
+            repository.createPost(new Post("Seed post " + i, SEED_USER_NAME,
+                    "Seeded content about " + labels[random.nextInt(labels.length)],
+                    new ArrayList<>(List.of(labels[random.nextInt(labels.length)]))));
+    }
+
+    public void run(int users, int sessionsPerUser, int flowsPerSession, long thinkMillis)
+            throws InterruptedException {
+        userNames = new AtomicReferenceArray<>(users);
+        userCount.set(0);
+        String runId = Long.toString(System.currentTimeMillis() % 100000, 36);
+        ExecutorService executor = Executors.newFixedThreadPool(users, threadFactory);
+        long start = System.nanoTime();
+        for (int i = 0; i < users; i++)
+            executor.execute(new VirtualUser(this, repository, "vu" + runId + "_" + i, 31L * i + start,
+                    sessionsPerUser, flowsPerSession, thinkMillis));
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        elapsedNanos = System.nanoTime() - start;
+    }
+
+    void addUserName(String userName) {
+        int index = userCount.getAndIncrement();
+        if (index < userNames.length())
+            userNames.set(index, userName);
+    }
+
+    String randomUserName(SplittableRandom random) {
+        int count = Math.min(userCount.get(), userNames.length());
+        if (count == 0)
+            return null;
+        String userName = userNames.get(random.nextInt(count));
+        return userName != null ? userName : userNames.get(0);
+    }
+
+    void record(String action, long nanos, boolean failed) {
+        latencies.computeIfAbsent(action, key -> new LatencyHistogram()).record(nanos);
+        actions.increment();
+        if (failed)
+            errors.computeIfAbsent(action, key -> new LongAdder()).increment();
+    }
+
+    void recordSession(boolean completed) {
+        sessions.increment();
+        if (!completed)
+            failedSessions.increment();
+    }
+
+    void recordFailure(Exception exception) {
+        if (failures.size() < 16)
+            failures.add(exception);
+    }
+
+    public void report(PrintStream out) {
+        double seconds = Math.max(1e-9, elapsedNanos / 1e9);
+        out.printf("%-22s %9s %7s %9s %9s %9s %9s %9s%n",
+                "ACTION", "COUNT", "ERR%", "MEAN(ms)", "P50(ms)", "P90(ms)", "P99(ms)", "MAX(ms)");
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(latencies).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            LongAdder failed = errors.get(entry.getKey());
+            out.printf("%-22s %9d %6.2f%% %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                    entry.getKey(), histogram.getCount(),
+                    failed == null ? 0 : 100.0 * failed.sum() / histogram.getCount(),
+                    histogram.getMeanNanos() / 1e6, histogram.getPercentileNanos(50) / 1e6,
+                    histogram.getPercentileNanos(90) / 1e6, histogram.getPercentileNanos(99) / 1e6,
+                    histogram.getMaxNanos() / 1e6);
+        }
+        out.printf("%d sessions (%d incomplete), %d actions in %.1fs: %.0f actions/s, %.1f sessions/s%n",
+                sessions.sum(), failedSessions.sum(), actions.sum(), seconds,
+                actions.sum() / seconds, sessions.sum() / seconds);
+        for (Exception failure : failures)
+            out.println("Failure: " + failure);
+    }
+
+    AuthService getAuthService() {
+        return auth;
+    }
+
+    public long getActionCount() {
+        return actions.sum();
+    }
+
+    public long getIncompleteSessionCount() {
+        return failedSessions.sum();
+    }
+}
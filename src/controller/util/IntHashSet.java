@@ -0,0 +1,121 @@
+package controller.util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+
+public final class IntHashSet {
+    private static final int FREE = Integer.MIN_VALUE;
+    private int[] slots;
+    private int size;
+
+    public IntHashSet() {
+        this(4);
+    }
+
+    public IntHashSet(int expectedSize) {
+        slots = new int[capacityFor(expectedSize)];
+        Arrays.fill(slots, FREE);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = 4;
+        while (capacity * 3 < expectedSize * 4)
+            capacity <<= 1;
+        return capacity;
+    }
+
+    private static int hash(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    public boolean add(int value) {
+        if (value == FREE)
+            throw new IllegalArgumentException("Unsupported value " + value);
+        int mask = slots.length - 1;
+        int index = hash(value) & mask;
+        while (slots[index] != FREE) {
+            if (slots[index] == value)
+                return false;
+            index = (index + 1) & mask;
+        }
+        slots[index] = value;
+        if (++size * 4 > slots.length * 3)
+            rehash(slots.length << 1);
+        return true;
+    }
+
+    public boolean contains(int value) {
+        int mask = slots.length - 1;
+        int index = hash(value) & mask;
+        while (slots[index] != FREE) {
+            if (slots[index] == value)
+                return true;
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public boolean remove(int value) {
+        int mask = slots.length - 1;
+        int index = hash(value) & mask;
+        while (slots[index] != value) {
+            if (slots[index] == FREE)
+                return false;
+            index = (index + 1) & mask;
+        }
+        slots[index] = FREE;
+        size--;
+        int next = (index + 1) & mask;
+        while (slots[next] != FREE) {
+            int moved = slots[next];
+            int home = hash(moved) & mask;
+            if (((next - home) & mask) >= ((next - index) & mask)) {
+                slots[index] = moved;
+                slots[next] = FREE;
+                index = next;
+            }
+            next = (next + 1) & mask;
+        }
+        return true;
+    }
+
+    private void rehash(int capacity) {
+        int[] old = slots;
+        slots = new int[capacity];
+        Arrays.fill(slots, FREE);
+        size = 0;
+        for (int value : old)
+            if (value != FREE)
+                add(value);
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int value : slots)
+            if (value != FREE)
+                action.accept(value);
+    }
+
+    public int[] toArray() {
+        int[] values = new int[size];
+        int i = 0;
+        for (int value : slots)
+            if (value != FREE)
+                values[i++] = value;
+        return values;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, FREE);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
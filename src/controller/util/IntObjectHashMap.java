@@ -0,0 +1,138 @@
+package controller.util;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+
+public final class IntObjectHashMap<V> {
+    private static final int FREE = Integer.MIN_VALUE;
+    private int[] keys;
+    private Object[] values;
+    private int size;
+
+    public IntObjectHashMap() {
+        this(16);
+    }
+
+    public IntObjectHashMap(int expectedSize) {
+        int capacity = 4;
+        while (capacity * 3 < expectedSize * 4)
+            capacity <<= 1;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        Arrays.fill(keys, FREE);
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (keys[index] != FREE) {
+            if (keys[index] == key)
+                return index;
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int index = indexOf(key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (key == FREE)
+            throw new IllegalArgumentException("Unsupported key " + key);
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (keys[index] != FREE) {
+            if (keys[index] == key) {
+                V old = (V) values[index];
+                values[index] = value;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size * 4 > keys.length * 3)
+            rehash(keys.length << 1);
+        return null;
+    }
+
+    public V computeIfAbsent(int key, IntFunction<V> factory) {
+        V value = get(key);
+        if (value == null)
+            put(key, value = factory.apply(key));
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int index = indexOf(key);
+        if (index < 0)
+            return null;
+        V old = (V) values[index];
+        int mask = keys.length - 1;
+        keys[index] = FREE;
+        values[index] = null;
+        size--;
+        int next = (index + 1) & mask;
+        while (keys[next] != FREE) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - index) & mask)) {
+                keys[index] = keys[next];
+                values[index] = values[next];
+                keys[next] = FREE;
+                values[next] = null;
+                index = next;
+            }
+            next = (next + 1) & mask;
+        }
+        return old;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        Arrays.fill(keys, FREE);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++)
+            if (oldKeys[i] != FREE)
+                put(oldKeys[i], uncheckedCast(oldValues[i]));
+    }
+
+    @SuppressWarnings("unchecked")
+    private V uncheckedCast(Object value) {
+        return (V) value;
+    }
+
+    public void forEachValue(Consumer<V> action) {
+        for (int i = 0; i < keys.length; i++)
+            if (keys[i] != FREE)
+                action.accept(uncheckedCast(values[i]));
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,71 @@
+package controller.util;
+
+
+public final class LongMinHeap {
+    private final long[] heap;
+    private int size;
+
+    public LongMinHeap(int capacity) {
+        heap = new long[capacity];
+    }
+
+    public boolean offer(long entry) {
+        if (size < heap.length) {
+            siftUp(size++, entry);
+            return true;
+        }
+        if (size == 0 || entry <= heap[0])
+            return false;
+        siftDown(entry);
+        return true;
+    }
+
+    public long peek() {
+        return heap[0];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == heap.length;
+    }
+
+    public long[] drainDescending() {
+        long[] result = new long[size];
+        while (size > 0) {
+            result[size - 1] = heap[0];
+            if (--size > 0)
+                siftDown(heap[size]);
+        }
+        return result;
+    }
+
+    private void siftUp(int index, long entry) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] <= entry)
+                break;
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = entry;
+    }
+
+    private void siftDown(long entry) {
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && heap[child + 1] < heap[child])
+                child++;
+            if (entry <= heap[child])
+                break;
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = entry;
+    }
+}
@@ -0,0 +1,4 @@
+package model;
+
+public record Credentials(int userId, String userName, String userPassword) {
+}
@@ -0,0 +1,5 @@
+package model;
+
+public final record PostSummary(int postId, String postTitle, String postAuthor, int contentLength,
+                                String postDate, int likeCount, int commentCount) {
+}
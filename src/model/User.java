@@ -1,7 +1,5 @@
 package model;
 
-import controller.DBController;
-
 import java.util.ArrayList;
 
 public final record User(int userId, String userName, String userPassword, String userEmail,
@@ -15,25 +13,4 @@ public final record User(int userId, String userName, String userPassword, Strin
         this(0, userName, userPassword, userEmail, false,
                 null, null, null, null, null, null);
     }
-
-    @Override
-    public String toString() {
-        return String.format("""
-                        ________________________________________________
-                        [    User_Information______%s  uid=%s
-                        [        username________| %s
-                        [        email___________| %s
-                        [        register_date___| %s
-                        [        last_online_____| %s
-                        [            total_posts_| %d
-                        [            followings__| %d
-                        [            followers___| %d
-                        [            interested__| %s
-                        ------------------------------------------------
-                        """,
-                online ? "ONLINE" : "OFFLINE", userId, userName, userEmail,
-                regDate, online ? "NOW" : exitDate,
-                postIdList.size(), followingsIdList.size(), followersIdList.size(),
-                DBController.getUserInterest(userName));
-    }
 }
@@ -1,26 +1,41 @@
 package view;
 
-import controller.DBController;
 import model.Comment;
 import model.Message;
-import model.Post;
+import model.PostSummary;
 import model.User;
 
-import java.util.ArrayList;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.Formatter;
 import java.util.Scanner;
 
 
 public final class NovepusIO {
+    private static final int FLUSH_THRESHOLD = 16 * 1024;
+    private static final int MAX_RETAINED_CAPACITY = 256 * 1024;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private final InputStream in;
+    private final PrintStream terminal;
+    private final StringBuilder screen = new StringBuilder(4096);
+    private final Formatter formatter = new Formatter(screen);
     private final Scanner scanner;
     private String username;
+    private PromptListener promptListener;
 
     public NovepusIO() {
-        scanner = new Scanner(System.in);
+        this(System.in, System.out);
+    }
+
+    public NovepusIO(InputStream in, PrintStream out) {
+        this.in = in;
+        this.terminal = out;
+        scanner = new Scanner(in);
         novepusPrintln(this + " Initialized");
     }
 
     public void showWelcomePage() {
-        System.out.println("""
+        println("""
                 ========================================================================
                 []                           N O V E P U S       (OPEN SOURCE)        []
                 []          https://github.com/pyx-2021/Novepus_Prototype.git         []
@@ -38,7 +53,7 @@ public final class NovepusIO {
     }
 
     public void showMainMenu() {
-        System.out.println("""
+        println("""
                 _______________________________________________
                         [        Main Menu            ]
                         |    'r'    to     New User   |
@@ -48,8 +63,8 @@ public final class NovepusIO {
                 -----------------------------------------------""");
     }
 
-    public void showUserMenu() {
-        System.out.printf("""
+    public void showUserMenu(int inboxCount, int onlineUserNum) {
+        printf("""
                         _______________________________________________
                                          User Center  [%s]
                                 |    'i'     to    Basic Info |
@@ -62,13 +77,11 @@ public final class NovepusIO {
                                 |  <OTHER>   to     REFRESH   |
                                 Online User Number: %d
                         -----------------------------------------------%n""",
-                username,
-                DBController.getUserInbox(username).size(),
-                DBController.getOnlineUserNum());
+                username, inboxCount, onlineUserNum);
     }
 
     public void showPostMenu() {
-        System.out.printf("""
+        printf("""
                         _______________________________________________
                                        Post Management  [%s]
                                 |    'p'     to    New Post   |
@@ -81,7 +94,7 @@ public final class NovepusIO {
     }
 
     public void showFollowMenu() {
-        System.out.printf("""
+        printf("""
                         _______________________________________________
                                        Social Option [%s]
                                 |    'v'    to    View Follow |
@@ -94,11 +107,12 @@ public final class NovepusIO {
     }
 
     public void showMailBoxMenu() {
-        System.out.printf("""
+        printf("""
                         _______________________________________________
                                          Mail Box  [%s]
                                 |    'p'    to    New Message |
                                 |    'd'    to      Delete    |
+                                |    'n'    to    Next Page   |
                                 |    'q'    to     Go Back    |
                                 |  <OTHER>   to     REFRESH   |
                         -----------------------------------------------%n""",
@@ -106,11 +120,12 @@ public final class NovepusIO {
     }
 
     public void showForumMenu() {
-        System.out.printf("""
+        printf("""
                         _______________________________________________
                                         World Forum  [%s]
                                 |    'v'    to    View Recent |
                                 |    'r'    to    Recommends  |
+                                |    'f'    to      Search    |
                                 |    's'    to      Select    |
                                 |    'a'    to     All Users  |
                                 |    'p'    to       Post     |
@@ -120,7 +135,7 @@ public final class NovepusIO {
     }
 
     public void showUserDetailMenu() {
-        System.out.printf("""
+        printf("""
                         _______________________________________________
                                        Item to Modify  [%s]
                                 |    'p'    to     Password   |
@@ -133,7 +148,7 @@ public final class NovepusIO {
     }
 
     public void showPostDetailMenu() {
-        System.out.println("""
+        println("""
                 _______________________________________________
                                Action on Post
                         |    'l'    to     Like       |
@@ -145,113 +160,182 @@ public final class NovepusIO {
 
     public String readLine() {
         String line;
+        beforePrompt();
         do {
-            System.out.print("\t" + username + " % ");
+            print("\t" + username + " % ");
+            flush();
             line = scanner.nextLine();
         } while (line.isBlank());
+        afterPrompt(line);
         return line;
     }
 
     public String readPassword() {
         String password;
+        beforePrompt();
         do {
-            System.out.print("\t" + username + " % ");
-            if (System.console() != null)
+            print("\t" + username + " % ");
+            flush();
+            if (in == System.in && System.console() != null)
                 password = String.valueOf(System.console().readPassword());
             else
                 password = scanner.nextLine();
         } while (password.isBlank());
+        afterPrompt("<password>");
         return password;
     }
 
     public String readOptional() {
         String string;
-        System.out.println(username + " % ");
+        beforePrompt();
+        println(username + " % ");
+        flush();
         string = scanner.nextLine();
+        afterPrompt("<optional>");
         return string;
     }
 
     public String readText() {
         StringBuilder text = new StringBuilder();
         String line;
+        beforePrompt();
         novepusPrintln("Reading multiple lines, double 'Enter' to finish");
         do {
-            System.out.print(username + "[continue]:");
+            print(username + "[continue]:");
+            flush();
             line = scanner.nextLine();
             text.append(line).append('\n');
         } while (!line.isEmpty());
+        afterPrompt("<text>");
         novepusPrintln("Finished!");
         return String.valueOf(text);
     }
 
+    private void beforePrompt() {
+        if (promptListener != null)
+            promptListener.beforePrompt();
+    }
+
+    private void afterPrompt(String input) {
+        if (promptListener != null)
+            promptListener.afterPrompt(input);
+    }
+
+    public void setPromptListener(PromptListener promptListener) {
+        this.promptListener = promptListener;
+    }
+
     public void novepusPrintln(Object o) {
-        System.out.println("\tNovepus >>> " + o);
+        println("\tNovepus >>> " + o);
     }
 
-    public void printUser(User user) {
-        System.out.println(user);
+    public void printReport(String report) {
+        println("_______________________________________________");
+        print(report);
+        println("-----------------------------------------------");
     }
 
-    public void printPost(Post post) {
-        System.out.println(post);
-        System.out.println("Showing Content\n");
-        System.out.println(post.content());
-        System.out.println("-----------------------------------------------Finish");
-        ArrayList<Comment> commentList = new ArrayList<>();
-        for (int id : DBController.getPostCommentId(post.postId())) {
-            Comment comment = DBController.retrieveCommentById(id);
-            if (!comment.deleted())
-                commentList.add(comment);
-        }
-        System.out.printf("Displaying Comments, %d in total%n", commentList.size());
-        printCommentList(commentList);
-        System.out.println("All Comments have been displayed!");
+    public void printUser(UserView user) {
+        println(user);
+    }
+
+    public void printPost(PostView post) {
+        println(post);
+        println("Showing Content\n");
+        println(post.post().content());
+        println("-----------------------------------------------Finish");
+        printf("Displaying Comments, %d in total%n", post.comments().size());
+        printCommentList(post.comments());
+        println("All Comments have been displayed!");
     }
 
     public void printComment(Comment comment) {
-        System.out.println(comment);
+        println(comment);
     }
 
     public void printMessage(Message message) {
-        System.out.println(message);
+        println(message);
     }
 
-    public void printUserList(ArrayList<User> userList) {
-        System.out.println("________NAME_____________________EMAIL______________________");
+    public int printUserList(Iterable<? extends User> userList) {
+        int rows = 0;
+        println("________NAME_____________________EMAIL______________________");
         for (User user : userList) {
-            System.out.printf("| %-15s%-8s||%-28s|%n",
+            printf("| %-15s%-8s||%-28s|%n",
                     user.userName(), user.online() ? "ONLINE" : "OFFLINE",
                     user.userEmail().isEmpty() ? "NOT SET" : user.userEmail());
+            rows++;
+            flushIfFull();
         }
-        System.out.println("------------------------------------------------------------");
+        println("------------------------------------------------------------");
+        return rows;
     }
 
-    public void printPostList(ArrayList<Post> postList) {
-        System.out.println("____________________________________________________________________________________________________");
-        for (Post post : postList) {
-            System.out.printf("pid=%-6s Title:%-20s Author:%-15s Size:%-5s  Date:%s%n\t\tLikes:%-6s Comments:%-6s%n%n",
-                    post.postId(), post.postTitle(), post.postAuthor(), post.content().length(), post.postDate(),
-                    DBController.getPostLikes(post.postId()), DBController.getPostCommentId(post.postId()).size());
+    public int printPostList(Iterable<? extends PostSummary> postList) {
+        int rows = 0;
+        println("____________________________________________________________________________________________________");
+        for (PostSummary post : postList) {
+            printf("pid=%-6s Title:%-20s Author:%-15s Size:%-5s  Date:%s%n\t\tLikes:%-6s Comments:%-6s%n%n",
+                    post.postId(), post.postTitle(), post.postAuthor(), post.contentLength(), post.postDate(),
+                    post.likeCount(), post.commentCount());
+            rows++;
+            flushIfFull();
         }
-        System.out.println("----------------------------------------------------------------------------------------------------");
+        println("----------------------------------------------------------------------------------------------------");
+        return rows;
     }
 
-    public void printCommentList(ArrayList<Comment> commentList) {
-        System.out.println("_____________________________________________________________________________________");
+    public int printCommentList(Iterable<? extends Comment> commentList) {
+        int rows = 0;
+        println("_____________________________________________________________________________________");
         for (Comment comment : commentList) {
-            System.out.printf("cid=%-6s From %-15s At %s%n\tContent: %s",
+            printf("cid=%-6s From %-15s At %s%n\tContent: %s",
                     comment.commentId(), comment.creator(), comment.createDate(), comment.content());
+            rows++;
+            flushIfFull();
         }
-        System.out.println("-------------------------------------------------------------------------------------");
+        println("-------------------------------------------------------------------------------------");
+        return rows;
     }
 
-    public void printMessageList(ArrayList<Message> messageList) {
-        System.out.println("_____________________________________________________________________________________");
+    public int printMessageList(Iterable<? extends Message> messageList) {
+        int rows = 0;
+        println("_____________________________________________________________________________________");
         for (Message message : messageList) {
-            System.out.printf("mid=%-6s From %-15s To %-15s At %s%n\tContent: %s%n",
+            printf("mid=%-6s From %-15s To %-15s At %s%n\tContent: %s%n",
                     message.messageId(), message.sender(), message.receiver(), message.sentDate(), message.content());
+            rows++;
+            flushIfFull();
         }
-        System.out.println("-------------------------------------------------------------------------------------");
+        println("-------------------------------------------------------------------------------------");
+        return rows;
+    }
+
+    public void flush() {
+        if (!screen.isEmpty()) {
+            terminal.append(screen);
+            screen.setLength(0);
+            if (screen.capacity() > MAX_RETAINED_CAPACITY)
+                screen.trimToSize();
+        }
+        terminal.flush();
+    }
+
+    private void flushIfFull() {
+        if (screen.length() >= FLUSH_THRESHOLD)
+            flush();
+    }
+
+    private void print(Object o) {
+        screen.append(o);
+    }
+
+    private void println(Object o) {
+        screen.append(o).append(LINE_SEPARATOR);
+    }
+
+    private void printf(String format, Object... args) {
+        formatter.format(format, args);
     }
 
     public void setUsername(String username) {
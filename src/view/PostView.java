@@ -0,0 +1,25 @@
+package view;
+
+import model.Comment;
+import model.Post;
+
+import java.util.ArrayList;
+
+public final record PostView(Post post, int likes, ArrayList<Comment> comments) {
+
+    @Override
+    public String toString() {
+        return String.format("""
+                        ________________________________________________
+                        [    Post_Information______%s
+                        [        title___________| %s
+                        [        author__________| %s
+                        [        post_date_______| %s
+                        [            likes_______| %s
+                        [            labels______| %s
+                        ------------------------------------------------
+                        """,
+                post.postId(), post.postTitle(), post.postAuthor(), post.postDate(),
+                likes, post.labelNameList());
+    }
+}
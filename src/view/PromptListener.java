@@ -0,0 +1,7 @@
+package view;
+
+public interface PromptListener {
+    void beforePrompt();
+
+    void afterPrompt(String input);
+}
@@ -0,0 +1,29 @@
+package view;
+
+import model.User;
+
+import java.util.ArrayList;
+
+public final record UserView(User user, ArrayList<String> interests) {
+
+    @Override
+    public String toString() {
+        return String.format("""
+                        ________________________________________________
+                        [    User_Information______%s  uid=%s
+                        [        username________| %s
+                        [        email___________| %s
+                        [        register_date___| %s
+                        [        last_online_____| %s
+                        [            total_posts_| %d
+                        [            followings__| %d
+                        [            followers___| %d
+                        [            interested__| %s
+                        ------------------------------------------------
+                        """,
+                user.online() ? "ONLINE" : "OFFLINE", user.userId(), user.userName(), user.userEmail(),
+                user.regDate(), user.online() ? "NOW" : user.exitDate(),
+                user.postIdList().size(), user.followingsIdList().size(), user.followersIdList().size(),
+                interests);
+    }
+}
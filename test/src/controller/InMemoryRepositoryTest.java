@@ -0,0 +1,99 @@
+package controller;
+
+import model.Comment;
+import model.Message;
+import model.Post;
+import model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class InMemoryRepositoryTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void snapshotRoundTrip()
+            throws IOException, SQLException {
+        Path file = directory.resolve("novepus.snapshot");
+        InMemoryRepository repository = new InMemoryRepository(file);
+        repository.createUser(new User("alice", "secret", "alice@novepus.local"));
+        repository.createUser(new User("bob", "hunter2", "bob@novepus.local"));
+        repository.setUserEmail("bob", "bob@polyu.local");
+        repository.addUserInterest("alice", "java");
+        repository.createPost(new Post("First", "alice", "Hello novepus", new ArrayList<>(List.of("java", "oracle"))));
+        repository.createPost(new Post("Second", "bob", "Gone soon", new ArrayList<>()));
+        repository.setPostStatus(2, true);
+        repository.createComment(new Comment(1, "bob", "Nice post"));
+        repository.userFollow("alice", "bob");
+        repository.userLikePost("bob", 1);
+        repository.createMessage(new Message("alice", "bob", "Hi bob"));
+        repository.createMessage(new Message("bob", "alice", "Deleted"));
+        repository.setMessageStatus(2, true);
+        repository.saveSnapshot();
+
+        InMemoryRepository loaded = new InMemoryRepository(file);
+        int alice = loaded.getUserId("alice");
+        int bob = loaded.getUserId("bob");
+        assertEquals(1, alice);
+        assertEquals(2, bob);
+        assertEquals("secret", loaded.retrieveCredentials("alice").userPassword());
+        assertEquals("bob@polyu.local", loaded.retrieveUserByName("bob").userEmail());
+        assertEquals(List.of("java"), loaded.getUserInterest("alice"));
+
+        Post first = loaded.retrievePostById(1);
+        assertEquals("First", first.postTitle());
+        assertEquals("alice", first.postAuthor());
+        assertEquals("Hello novepus", first.content());
+        assertFalse(first.deleted());
+        assertEquals(List.of("java", "oracle"), loaded.getPostLabel(1));
+        assertTrue(loaded.retrievePostById(2).deleted());
+        assertEquals(List.of(1), loaded.searchPosts("novepus", 10));
+        assertEquals(List.of(1), loaded.getUserInterestPost("alice"));
+
+        assertEquals(1, loaded.getPostComments(1).size());
+        assertEquals("Nice post", loaded.retrieveCommentById(1).content());
+        assertTrue(loaded.isFollowing(alice, bob));
+        assertFalse(loaded.isFollowing(bob, alice));
+        assertEquals(1, loaded.getFollowerCount(bob));
+        assertEquals(1, loaded.getPostLikes(1));
+        assertEquals("Hi bob", loaded.retrieveMessageById(1).content());
+        assertTrue(loaded.retrieveMessageById(2).deleted());
+        assertEquals(1, loaded.getMailbox("bob", 0).size());
+
+        loaded.createUser(new User("carol", "pw", "carol@novepus.local"));
+        loaded.createPost(new Post("Third", "carol", "Fresh", new ArrayList<>(List.of("rust"))));
+        loaded.createComment(new Comment(3, "carol", "Mine"));
+        loaded.createMessage(new Message("carol", "alice", "Hello"));
+        assertEquals(3, loaded.getUserId("carol"));
+        assertEquals("Third", loaded.retrievePostById(3).postTitle());
+        assertEquals("Mine", loaded.retrieveCommentById(2).content());
+        assertEquals("Hello", loaded.retrieveMessageById(3).content());
+        assertEquals("rust", loaded.getLabelById(3));
+    }
+
+    @Test
+    void rejectsForeignSnapshot()
+            throws IOException {
+        Path file = directory.resolve("foreign.snapshot");
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(0xCAFEBABE);
+            out.writeInt(1);
+        }
+        assertThrows(IOException.class, () -> new InMemoryRepository(file));
+    }
+}
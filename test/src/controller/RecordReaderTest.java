@@ -0,0 +1,113 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class RecordReaderTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void csvHeaderIsNormalized()
+            throws IOException {
+        ArrayList<HashMap<String, String>> records = readAll("posts.csv", " Author ,TITLE\nalice,Hello\n");
+        assertEquals(1, records.size());
+        assertEquals(Map.of("author", "alice", "title", "Hello"), records.get(0));
+    }
+
+    @Test
+    void csvQuotedFields()
+            throws IOException {
+        ArrayList<HashMap<String, String>> records = readAll("posts.csv",
+                "author,content\nalice,\"one, two\"\nbob,\"say \"\"hi\"\"\"\ncarol,\"\"\n");
+        assertEquals(3, records.size());
+        assertEquals("one, two", records.get(0).get("content"));
+        assertEquals("say \"hi\"", records.get(1).get("content"));
+        assertEquals("", records.get(2).get("content"));
+    }
+
+    @Test
+    void csvEmbeddedNewlines()
+            throws IOException {
+        ArrayList<HashMap<String, String>> records = readAll("posts.csv",
+                "author,content\nalice,\"first line\n\nthird line\"\nbob,next\n");
+        assertEquals(2, records.size());
+        assertEquals("first line\n\nthird line", records.get(0).get("content"));
+        assertEquals("next", records.get(1).get("content"));
+    }
+
+    @Test
+    void csvSkipsBlankLines()
+            throws IOException {
+        ArrayList<HashMap<String, String>> records = readAll("follows.csv", "user,followed\n\nalice,bob\n\n\nbob,alice\n\n");
+        assertEquals(2, records.size());
+        assertEquals("bob", records.get(1).get("user"));
+    }
+
+    @Test
+    void csvRejectsMalformedRows() {
+        IOException wrongWidth = assertThrows(IOException.class,
+                () -> readAll("posts.csv", "author,content\nalice,\"a\nb\"\nbob,x,y\n"));
+        assertTrue(wrongWidth.getMessage().startsWith("Line 4:"), wrongWidth.getMessage());
+        assertThrows(IOException.class, () -> readAll("posts.csv", "author,content\nalice,\"never closed\n"));
+    }
+
+    @Test
+    void jsonLinesValues()
+            throws IOException {
+        ArrayList<HashMap<String, String>> records = readAll("posts.jsonl", """
+                {"Author": "alice", "content": "line\\nbreak \\"quoted\\" caf\\u00e9", "labels": ["java", "db"]}
+
+                { "author" : "bob" , "post_id" : 42, "labels": [], "title": null }
+                {}
+                """);
+        assertEquals(3, records.size());
+        assertEquals("alice", records.get(0).get("author"));
+        assertEquals("line\nbreak \"quoted\" caf\u00e9", records.get(0).get("content"));
+        assertEquals("java;db", records.get(0).get("labels"));
+        assertEquals("42", records.get(1).get("post_id"));
+        assertEquals("", records.get(1).get("labels"));
+        assertTrue(records.get(1).containsKey("title"));
+        assertNull(records.get(1).get("title"));
+        assertTrue(records.get(2).isEmpty());
+    }
+
+    @Test
+    void jsonLinesRejectsMalformedRecords() {
+        assertThrows(IOException.class, () -> readAll("posts.jsonl", "{\"author\": \"alice\"\n"));
+        assertThrows(IOException.class, () -> readAll("posts.jsonl", "{\"author\": \"alice}\n"));
+        assertThrows(IOException.class, () -> readAll("posts.jsonl", "{\"author\": }\n"));
+    }
+
+    @Test
+    void rejectsUnknownFileType() {
+        assertThrows(IOException.class, () -> readAll("posts.xml", "<posts/>"));
+    }
+
+    private ArrayList<HashMap<String, String>> readAll(String name, String content)
+            throws IOException {
+        Path file = directory.resolve(name);
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        ArrayList<HashMap<String, String>> records = new ArrayList<>();
+        try (RecordReader reader = RecordReader.open(file)) {
+            HashMap<String, String> record;
+            while ((record = reader.next()) != null)
+                records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,182 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class SearchIndexTest {
+    @Test
+    void varIntRoundTrip() {
+        int[] values = {0, 1, 127, 128, 300, 16383, 16384, 2097151, 2097152, Integer.MAX_VALUE, -1, Integer.MIN_VALUE};
+        int[] lengths = {1, 1, 1, 2, 2, 2, 3, 3, 4, 5, 5, 5};
+        byte[] data = new byte[values.length * 5];
+        int offset = 0;
+        for (int i = 0; i < values.length; i++) {
+            int end = SearchIndex.writeVarInt(data, offset, values[i]);
+            assertEquals(lengths[i], end - offset, "encoded length of " + values[i]);
+            offset = end;
+        }
+        int[] position = {0};
+        for (int value : values)
+            assertEquals(value, SearchIndex.readVarInt(data, position));
+        assertEquals(offset, position[0]);
+    }
+
+    @Test
+    void blockEncodeDecode() {
+        long[] entries = {entry(3, 1), entry(130, 7), entry(131, 1), entry(1 << 20, 300)};
+        SearchIndex.Block block = SearchIndex.Block.encode(entries, 0, entries.length);
+        assertEquals(4, block.size());
+        assertEquals(1 << 20, block.lastPostId());
+        assertEquals(300, block.maxFrequency());
+        assertArrayEquals(entries, block.decode());
+    }
+
+    @Test
+    void appendFillsBlocks() {
+        SearchIndex.Postings postings = new SearchIndex.Postings();
+        for (int postId = 1; postId <= SearchIndex.BLOCK_SIZE * 3; postId++)
+            postings.add(postId, 1);
+        postings.compact();
+        SearchIndex.Block[] blocks = postings.getBlocks();
+        assertEquals(3, blocks.length);
+        for (SearchIndex.Block block : blocks)
+            assertEquals(SearchIndex.BLOCK_SIZE, block.size());
+        assertEquals(SearchIndex.BLOCK_SIZE * 3, postings.getEntries().length);
+    }
+
+    @Test
+    void tailStaysBoundedWithoutCompact() {
+        SearchIndex.Postings postings = new SearchIndex.Postings();
+        Random random = new Random(7);
+        for (int i = 0; i < SearchIndex.BLOCK_SIZE * 20; i++) {
+            postings.add(1 + random.nextInt(SearchIndex.BLOCK_SIZE * 40), 1);
+            assertTrue(postings.getTailSize() < SearchIndex.TAIL_LIMIT);
+        }
+    }
+
+    @Test
+    void outOfOrderTailRewritesOnlyItsBlock() {
+        SearchIndex.Postings postings = new SearchIndex.Postings();
+        for (int postId = 2; postId <= SearchIndex.BLOCK_SIZE * 6; postId += 2)
+            postings.add(postId, 1);
+        postings.compact();
+        SearchIndex.Block[] before = postings.getBlocks();
+        assertEquals(3, before.length);
+        postings.add(before[0].lastPostId() + 1, 2);
+        postings.compact();
+        SearchIndex.Block[] after = postings.getBlocks();
+        assertSame(before[0], after[0]);
+        assertNotSame(before[1], after[1]);
+        for (int i = 2; i < before.length; i++)
+            assertSame(before[i], after[after.length - before.length + i]);
+        long[] entries = postings.getEntries();
+        assertEquals(SearchIndex.BLOCK_SIZE * 3 + 1, entries.length);
+        for (int i = 1; i < entries.length; i++)
+            assertTrue(postId(entries[i - 1]) < postId(entries[i]));
+        for (SearchIndex.Block block : after)
+            assertTrue(block.size() <= SearchIndex.BLOCK_SIZE);
+    }
+
+    @Test
+    void duplicatePostingsMerge() {
+        SearchIndex.Postings postings = new SearchIndex.Postings();
+        postings.add(5, 3);
+        postings.add(9, 1);
+        postings.add(5, 1);
+        postings.compact();
+        postings.add(5, 2);
+        postings.add(9, 4);
+        assertArrayEquals(new long[]{entry(5, 6), entry(9, 5)}, postings.getEntries());
+    }
+
+    @Test
+    void documentFrequencyCountsPostsOnce() {
+        SearchIndex index = new SearchIndex();
+        index.add(1, "alpha", SearchIndex.TITLE_WEIGHT);
+        index.add(1, "alpha", SearchIndex.TEXT_WEIGHT);
+        index.add(2, "beta beta beta", SearchIndex.TEXT_WEIGHT);
+        index.add(3, "gamma", SearchIndex.TEXT_WEIGHT);
+        assertArrayEquals(new int[]{1, 2}, index.search("alpha beta", 10));
+    }
+
+    @Test
+    void deletedPostsAreSkipped() {
+        SearchIndex index = new SearchIndex();
+        index.add(1, "alpha alpha", SearchIndex.TEXT_WEIGHT);
+        index.add(2, "alpha", SearchIndex.TEXT_WEIGHT);
+        index.setDeleted(1, true);
+        assertArrayEquals(new int[]{2}, index.search("alpha", 1));
+        index.setDeleted(1, false);
+        assertArrayEquals(new int[]{1}, index.search("alpha", 1));
+    }
+
+    @Test
+    void prunedSearchMatchesExhaustiveScoring() {
+        Random random = new Random(2411);
+        for (int trial = 0; trial < 50; trial++) {
+            SearchIndex index = new SearchIndex();
+            Map<String, TreeMap<Integer, Integer>> reference = new HashMap<>();
+            HashSet<Integer> documents = new HashSet<>();
+            for (int i = 1; i <= 1500; i++) {
+                int postId = random.nextInt(4) == 0 ? 1 + random.nextInt(i) : i;
+                int weight = random.nextBoolean() ? SearchIndex.TITLE_WEIGHT : SearchIndex.TEXT_WEIGHT;
+                StringBuilder text = new StringBuilder();
+                for (int words = 1 + random.nextInt(6); words > 0; words--) {
+                    String word = "w" + Math.min(29, (int) Math.abs(random.nextGaussian() * 8));
+                    text.append(word).append(' ');
+                    reference.computeIfAbsent(word, term -> new TreeMap<>()).merge(postId, weight, Integer::sum);
+                }
+                index.add(postId, text.toString(), weight);
+                documents.add(postId);
+            }
+            if (trial % 2 == 0)
+                index.compact();
+            for (int query = 0; query < 10; query++) {
+                String[] terms = {"w" + random.nextInt(30), "w" + random.nextInt(30), "w" + random.nextInt(30)};
+                int k = 1 + random.nextInt(20);
+                assertArrayEquals(exhaustive(reference, documents.size(), terms, k),
+                        index.search(String.join(" ", terms), k), Arrays.toString(terms) + " k=" + k);
+            }
+        }
+    }
+
+    private static int[] exhaustive(Map<String, TreeMap<Integer, Integer>> reference, int documentCount,
+                                    String[] terms, int k) {
+        HashMap<Integer, Float> scores = new HashMap<>();
+        for (String term : Arrays.stream(terms).distinct().toList()) {
+            TreeMap<Integer, Integer> postings = reference.get(term);
+            if (postings == null)
+                continue;
+            int df = postings.size();
+            float idf = (float) Math.max(0.01, Math.log(1 + (documentCount - df + 0.5) / (df + 0.5)));
+            postings.forEach((postId, frequency) ->
+                    scores.merge(postId, idf * frequency * (1.2f + 1) / (frequency + 1.2f), Float::sum));
+        }
+        ArrayList<Integer> ranked = new ArrayList<>(scores.keySet());
+        ranked.sort((a, b) -> scores.get(a).equals(scores.get(b))
+                ? Integer.compare(b, a) : Float.compare(scores.get(b), scores.get(a)));
+        return ranked.stream().limit(k).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static long entry(int postId, int frequency) {
+        return (long) postId << 32 | frequency;
+    }
+
+    private static int postId(long entry) {
+        return (int) (entry >> 32);
+    }
+}